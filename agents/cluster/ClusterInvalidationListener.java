@@ -0,0 +1,177 @@
+package com.example.agents.cluster;
+
+import com.example.agents.config.AgentProperties;
+import com.example.agents.repository.AgentRepository;
+import com.example.agents.service.AgentCache;
+import com.example.agents.service.AgentStatistics;
+import com.example.agents.service.AgentUniquenessIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Écoute le canal d'invalidation sur une connexion dédiée (hors pool Hikari) et invalide l'état local
+// touché par les écritures des autres nœuds : cache des agents, cache de second niveau, index d'unicité.
+// Les statistiques en mémoire sont recalculées peu après (un recalcul pour toutes les notifications reçues entre-temps).
+@Component
+@Slf4j
+public class ClusterInvalidationListener {
+    
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+    
+    private final ClusterInvalidationPublisher publisher;
+    private final AgentCache agentCache;
+    private final AgentRepository agentRepository;
+    private final AgentUniquenessIndex uniquenessIndex;
+    private final AgentStatistics agentStatistics;
+    private final DataSourceProperties dataSourceProperties;
+    private final AgentProperties.Cluster config;
+    private final Counter received;
+    private final Counter invalidatedAll;
+    private final Counter reconnects;
+    
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+    
+    public ClusterInvalidationListener(ClusterInvalidationPublisher publisher, AgentCache agentCache,
+                                       AgentRepository agentRepository, AgentUniquenessIndex uniquenessIndex,
+                                       AgentStatistics agentStatistics, DataSourceProperties dataSourceProperties,
+                                       AgentProperties agentProperties, MeterRegistry meterRegistry) {
+        this.publisher = publisher;
+        this.agentCache = agentCache;
+        this.agentRepository = agentRepository;
+        this.uniquenessIndex = uniquenessIndex;
+        this.agentStatistics = agentStatistics;
+        this.dataSourceProperties = dataSourceProperties;
+        this.config = agentProperties.getCluster();
+        if (!CHANNEL.matcher(config.getChannel()).matches()) {
+            throw new IllegalStateException("Invalid cluster channel: " + config.getChannel());
+        }
+        this.received = meterRegistry.counter("agents.cluster.invalidations", "scope", "agent");
+        this.invalidatedAll = meterRegistry.counter("agents.cluster.invalidations", "scope", "all");
+        this.reconnects = meterRegistry.counter("agents.cluster.listener.reconnects");
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("agents-cluster-listener").daemon().start(this::listen);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Connection current = connection;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                log.debug("Fermeture de la connexion d'écoute: {}", e.getMessage());
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+    
+    private void listen() {
+        boolean reconnected = false;
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection = conn;
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN " + config.getChannel());
+                }
+                log.info("Écoute des invalidations sur le canal: {}", config.getChannel());
+                // Les notifications émises avant l'écoute sont perdues : l'état local est repris de zéro
+                invalidateAll(reconnected);
+                reconnected = true;
+                
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                int pollTimeout = (int) config.getPollTimeout().toMillis();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeout);
+                    if (notifications != null && notifications.length > 0) {
+                        handle(notifications);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                reconnects.increment();
+                log.warn("Connexion d'écoute des invalidations perdue: {}", e.getMessage());
+                try {
+                    Thread.sleep(config.getReconnectDelay());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    // Toutes les notifications reçues en un appel sont traitées ensemble (une requête par lot)
+    private void handle(PGNotification[] notifications) {
+        Set<String> userIds = new HashSet<>();
+        boolean all = false;
+        for (PGNotification notification : notifications) {
+            String payload = notification.getParameter();
+            int separator = payload.indexOf(ClusterInvalidationPublisher.NODE_SEPARATOR);
+            if (separator < 0 || payload.substring(0, separator).equals(publisher.getNodeId())) {
+                continue;
+            }
+            String body = payload.substring(separator + 1);
+            if (ClusterInvalidationPublisher.ALL.equals(body)) {
+                all = true;
+            } else {
+                userIds.addAll(Arrays.asList(body.split(",")));
+            }
+        }
+        
+        try {
+            if (all) {
+                invalidateAll(true);
+            } else if (!userIds.isEmpty()) {
+                agentCache.invalidate(userIds);
+                agentRepository.evictSecondLevelCache(userIds);
+                uniquenessIndex.registerUserIds(userIds);
+                agentStatistics.requestReseed();
+                received.increment(userIds.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Échec de l'invalidation de {} agents: {}", userIds.size(), e.getMessage());
+        }
+    }
+    
+    // reloadIndex : au démarrage, l'index d'unicité et les statistiques viennent d'être chargés
+    private void invalidateAll(boolean reloadIndex) {
+        agentCache.invalidateAll();
+        agentRepository.evictSecondLevelCache(null);
+        if (reloadIndex) {
+            uniquenessIndex.warmUp();
+            agentStatistics.requestReseed();
+        }
+        invalidatedAll.increment();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.agents.cluster;
+
+import com.example.agents.config.AgentProperties;
+import com.example.agents.util.BoundedRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Diffuse aux autres nœuds les agents modifiés par les transactions validées (NOTIFY Postgres).
+// Les userIds sont mis en tampon après le commit puis envoyés par lots, découpés selon la taille maximale
+// d'une notification.
+@Component
+@Slf4j
+public class ClusterInvalidationPublisher {
+    
+    // Notification : "<nœud>|<userId>,<userId>,..." ou "<nœud>|*" pour tout invalider
+    static final char NODE_SEPARATOR = '|';
+    static final String ALL = "*";
+    
+    // Postgres refuse un contenu de 8000 octets ou plus : la borne porte sur les octets, pas sur le nombre
+    // de userIds (leur longueur n'est pas fixe : IDs historiques, import en masse)
+    private static final int MAX_PAYLOAD_BYTES = 7999;
+    
+    private static final String NOTIFY = "SELECT pg_notify(?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final AgentProperties.Cluster config;
+    private final BoundedRingBuffer<String> buffer;
+    private final int batchSize;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final int maxUserIdsBytes = MAX_PAYLOAD_BYTES - utf8Length(nodeId) - 1;
+    
+    // Tampon plein ou envoi en échec : le prochain envoi demande aux autres nœuds de tout invalider
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    
+    private final Counter sent;
+    private final Counter failed;
+    
+    public ClusterInvalidationPublisher(JdbcTemplate jdbcTemplate, AgentProperties agentProperties,
+                                        MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = agentProperties.getCluster();
+        this.buffer = new BoundedRingBuffer<>(config.getCapacity());
+        this.batchSize = config.getBatchSize();
+        this.sent = meterRegistry.counter("agents.cluster.notifications", "result", "sent");
+        this.failed = meterRegistry.counter("agents.cluster.notifications", "result", "failed");
+    }
+    
+    String getNodeId() {
+        return nodeId;
+    }
+    
+    // Publie le userId une fois la transaction en cours validée (immédiatement hors transaction),
+    // une seule fois par transaction
+    public void publishAfterCommit(String userId) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            offer(userId);
+            return;
+        }
+        
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> userIds = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, userIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userIds.forEach(ClusterInvalidationPublisher.this::offer);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ClusterInvalidationPublisher.this);
+                }
+            });
+            pending = userIds;
+        }
+        pending.add(userId);
+    }
+    
+    private void offer(String userId) {
+        if (!buffer.offer(userId)) {
+            overflowed.set(true);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "#{@agentProperties.cluster.flushInterval.toMillis()}")
+    public void flush() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (overflowed.getAndSet(false)) {
+            log.warn("Invalidations perdues, invalidation complète demandée aux autres nœuds");
+            notify(ALL);
+        }
+        List<String> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            send(batch);
+            boolean full = batch.size() == batchSize;
+            batch.clear();
+            if (!full) {
+                break;
+            }
+        }
+    }
+    
+    // Un lot donne autant de notifications que nécessaire pour rester sous MAX_PAYLOAD_BYTES
+    private void send(List<String> userIds) {
+        StringBuilder payload = new StringBuilder();
+        int bytes = 0;
+        for (String userId : userIds) {
+            int length = utf8Length(userId);
+            if (length > maxUserIdsBytes) {
+                // userId impossible à diffuser seul : les autres nœuds invalideront tout
+                overflowed.set(true);
+                continue;
+            }
+            if (bytes > 0 && bytes + 1 + length > maxUserIdsBytes) {
+                notify(payload.toString());
+                payload.setLength(0);
+                bytes = 0;
+            }
+            if (bytes > 0) {
+                payload.append(',');
+                bytes++;
+            }
+            payload.append(userId);
+            bytes += length;
+        }
+        if (bytes > 0) {
+            notify(payload.toString());
+        }
+    }
+    
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+    
+    // Dernier envoi à l'arrêt de l'application
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    // Hors transaction : la notification est délivrée dès l'exécution
+    private void notify(String userIds) {
+        try {
+            jdbcTemplate.queryForList(NOTIFY, config.getChannel(), nodeId + NODE_SEPARATOR + userIds);
+            sent.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            overflowed.set(true);
+            log.error("Échec de l'envoi d'une notification d'invalidation: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.agents.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "agents")
+public class AgentProperties {
+
+    private final Pagination pagination = new Pagination();
+    private final BulkImport bulkImport = new BulkImport();
+    private final Cache cache = new Cache();
+    private final UserId userId = new UserId();
+    private final Uniqueness uniqueness = new Uniqueness();
+    private final Events events = new Events();
+    private final Serialization serialization = new Serialization();
+    private final Purge purge = new Purge();
+    private final Stats stats = new Stats();
+    private final Roles roles = new Roles();
+    private final Cluster cluster = new Cluster();
+    private final Coalescing coalescing = new Coalescing();
+    private final Admission admission = new Admission();
+
+    // Pagination par curseur des listes d'agents
+    @Data
+    public static class Pagination {
+        private int defaultLimit = 100;
+        private int maxLimit = 1000;
+
+        public int resolveLimit(Integer limit) {
+            if (limit == null) {
+                return defaultLimit;
+            }
+            return Math.max(1, Math.min(limit, maxLimit));
+        }
+    }
+    
+    // Import en masse : nombre d'agents par transaction
+    @Data
+    public static class BulkImport {
+        private int chunkSize = 1000;
+    }
+    
+    // Cache des agents lus par ID
+    @Data
+    public static class Cache {
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+    
+    // Génération des userIds : clé de permutation partagée (taille des blocs = incrément de agent_user_id_seq)
+    @Data
+    public static class UserId {
+        private long permutationKey = 0x5DEECE66DL;
+    }
+    
+    // Index mémoire d'unicité (dimensionnement des filtres de Bloom)
+    @Data
+    public static class Uniqueness {
+        private long expectedInsertions = 1_000_000;
+        private double falsePositiveRate = 0.01;
+    }
+    
+    // Journal des modifications : taille du tampon, taille des lots et fréquence d'écriture
+    @Data
+    public static class Events {
+        private int capacity = 65_536;
+        private int batchSize = 500;
+        private Duration flushInterval = Duration.ofMillis(200);
+    }
+    
+    // Formats binaires (CBOR / Smile) : champs omis à la sérialisation (NON_DEFAULT omet aussi false et 0)
+    @Data
+    public static class Serialization {
+        private JsonInclude.Include binaryInclusion = JsonInclude.Include.NON_NULL;
+    }
+    
+    // Purge des agents supprimés logiquement : délai de conservation, taille des lots, fréquence
+    @Data
+    public static class Purge {
+        private Duration retention = Duration.ofDays(7);
+        private int batchSize = 500;
+        private Duration interval = Duration.ofMinutes(10);
+    }
+    
+    // Statistiques en mémoire : recalcul complet périodique (écritures des autres nœuds)
+    @Data
+    public static class Stats {
+        private Duration reseedInterval = Duration.ofMinutes(10);
+        // Délai de regroupement des recalculs déclenchés par les écritures des autres nœuds
+        private Duration remoteReseedDelay = Duration.ofSeconds(5);
+        // Identifiants de transaction Postgres (pg_current_xact_id) : comptages exacts pendant un recalcul.
+        // Sans eux, une écriture validée juste avant un recalcul peut y être comptée deux fois
+        private boolean transactionIds = true;
+    }
+    
+    // Attribution / retrait de rôles en masse : agents par instruction SQL
+    @Data
+    public static class Roles {
+        private int batchSize = 1000;
+    }
+    
+    // Invalidation entre nœuds (LISTEN/NOTIFY Postgres) : canal, tampon, lots et fréquence d'envoi, reconnexion
+    @Data
+    public static class Cluster {
+        private boolean enabled = true;
+        private String channel = "agents_invalidation";
+        private int capacity = 16_384;
+        private int batchSize = 500;
+        private Duration flushInterval = Duration.ofMillis(50);
+        private Duration pollTimeout = Duration.ofMillis(500);
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+    }
+    
+    // Regroupement des lectures concurrentes identiques : attente maximale du chargement en cours
+    @Data
+    public static class Coalescing {
+        private Duration maxWait = Duration.ofSeconds(2);
+    }
+    
+    // Contrôle d'admission (429) : débit par client et requêtes simultanées, budgets lectures / écritures séparés
+    @Data
+    public static class Admission {
+        private boolean enabled = true;
+        // Identifiant du client, pris en compte seulement derrière un proxy de confiance ; à défaut, adresse IP
+        private String clientHeader = "X-Client-Id";
+        private long maxClients = 100_000;
+        private Duration clientIdleTimeout = Duration.ofMinutes(10);
+        private final Limit reads = new Limit(200, 400, 200);
+        // Écritures simultanées bornées sous la taille du pool : des connexions restent aux lectures
+        private final Limit writes = new Limit(20, 40, 10);
+        // Flux NDJSON (?stream=true) : une connexion tenue pendant tout le parcours de la table
+        private final Limit streams = new Limit(1, 2, 2);
+        
+        @Data
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class Limit {
+            private double permitsPerSecond;
+            private int burst;
+            private int maxConcurrent;
+        }
+    }
+}
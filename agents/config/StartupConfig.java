@@ -0,0 +1,45 @@
+package com.example.agents.config;
+
+import com.example.agents.cluster.ClusterInvalidationListener;
+import com.example.agents.cluster.ClusterInvalidationPublisher;
+import com.example.agents.dto.AgentCount;
+import com.example.agents.dto.AgentProfile;
+import com.example.agents.dto.AgentSummary;
+import com.example.agents.dto.AgentUniqueKeys;
+import com.example.agents.dto.AgentVersion;
+import com.example.agents.event.AgentEventWriter;
+import com.example.agents.service.AgentPurger;
+import com.example.agents.service.AgentStatistics;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+// Démarrage rapide (profil prod) et image native
+@Configuration
+@RegisterReflectionForBinding({AgentVersion.class, AgentSummary.class, AgentUniqueKeys.class, AgentCount.class,
+        AgentProfile.class})
+@ImportRuntimeHints(StartupConfig.ResourceHints.class)
+public class StartupConfig {
+    
+    // Initialisation paresseuse : les méthodes @Scheduled ne sont enregistrées que pour les beans créés,
+    // les tâches de fond et l'écoute des invalidations restent donc créées au démarrage
+    @Bean
+    public static LazyInitializationExcludeFilter backgroundTasksExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(AgentEventWriter.class,
+                ClusterInvalidationPublisher.class, ClusterInvalidationListener.class,
+                AgentPurger.class, AgentStatistics.class);
+    }
+    
+    // Régions du cache de second niveau (Caffeine JCache), lues depuis le classpath
+    static class ResourceHints implements RuntimeHintsRegistrar {
+        
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern("application.conf");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.agents.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+public class WebConfig {
+    
+    // Formats binaires négociés par l'en-tête Accept (application/cbor, application/x-jackson-smile) :
+    // même configuration que le JSON (spring.jackson.*), seule l'inclusion des champs diffère
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder,
+                                                                            AgentProperties agentProperties) {
+        return new MappingJackson2CborHttpMessageConverter(builder
+                .factory(new CBORFactory())
+                .serializationInclusion(agentProperties.getSerialization().getBinaryInclusion())
+                .build());
+    }
+    
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder,
+                                                                              AgentProperties agentProperties) {
+        return new MappingJackson2SmileHttpMessageConverter(builder
+                .factory(new SmileFactory())
+                .serializationInclusion(agentProperties.getSerialization().getBinaryInclusion())
+                .build());
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.agents.controller;
+
+import com.example.agents.config.AgentProperties;
+import com.example.agents.util.RateLimiter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Contrôle d'admission devant l'API : débit par client puis nombre de requêtes simultanées, avec des budgets
+// séparés pour les lectures et les écritures. Refus immédiat en 429 avec Retry-After, sans mise en attente :
+// un client qui écrit en masse ne peut ni vider le pool de connexions ni ralentir les lectures.
+@Component
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    
+    private static final String API_PREFIX = "/api/";
+    
+    // Posé par RemoteIpValve quand la requête arrive d'un proxy de confiance (server.tomcat.remoteip.internal-proxies)
+    private static final String TRUSTED_PROXY_ATTRIBUTE = "org.apache.tomcat.request.forwarded";
+    
+    private final AgentProperties.Admission config;
+    private final Budget reads;
+    private final Budget writes;
+    private final Budget streams;
+    
+    public AdmissionControlFilter(AgentProperties agentProperties, MeterRegistry meterRegistry) {
+        this.config = agentProperties.getAdmission();
+        this.reads = new Budget("read", config.getReads(), config, meterRegistry);
+        this.writes = new Budget("write", config.getWrites(), config, meterRegistry);
+        this.streams = new Budget("stream", config.getStreams(), config, meterRegistry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !config.isEnabled() || !request.getRequestURI().startsWith(API_PREFIX);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Budget budget = isStream(request) ? streams : isRead(request) ? reads : writes;
+        String client = clientKey(request);
+        
+        long waitNanos = budget.limiter(client).tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            budget.rateLimited.increment();
+            log.debug("Débit dépassé ({}) pour le client: {}", budget.type, client);
+            reject(response, Math.ceilDiv(waitNanos, TimeUnit.SECONDS.toNanos(1)));
+            return;
+        }
+        if (!budget.concurrency.tryAcquire()) {
+            budget.concurrencyLimited.increment();
+            log.debug("Trop de requêtes simultanées ({}), client: {}", budget.type, client);
+            reject(response, 1);
+            return;
+        }
+        
+        budget.accepted.increment();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Réponse asynchrone (flux NDJSON) : la connexion reste occupée jusqu'à la fin du flux
+                request.getAsyncContext().addListener(new PermitRelease(budget.concurrency));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                budget.concurrency.release();
+            }
+        }
+    }
+    
+    // GET /agents?stream=true parcourt toute la table dans une seule transaction : budget propre, réduit
+    private static boolean isStream(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) && "true".equals(request.getParameter("stream"));
+    }
+    
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method);
+    }
+    
+    // Utilisateur authentifié, sinon identifiant du client posé par un proxy de confiance, sinon adresse du client
+    // (X-Forwarded-For résolu par Tomcat, server.forward-headers-strategy=native, proxies internes uniquement)
+    private String clientKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(TRUSTED_PROXY_ATTRIBUTE))) {
+            String client = request.getHeader(config.getClientHeader());
+            if (client != null && !client.isBlank()) {
+                return "client:" + client;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+    
+    private static void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\": \"Too many requests, retry later\"}");
+    }
+    
+    // Libère la place une seule fois, quelle que soit l'issue de la réponse asynchrone
+    private static final class PermitRelease implements AsyncListener {
+        
+        private final Semaphore concurrency;
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        private PermitRelease(Semaphore concurrency) {
+            this.concurrency = concurrency;
+        }
+        
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Nouveau cycle asynchrone : l'écouteur doit être réenregistré pour être notifié
+            event.getAsyncContext().addListener(this);
+        }
+        
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                concurrency.release();
+            }
+        }
+    }
+    
+    // Limiteurs par client, limite de concurrence et compteurs d'une classe de requêtes
+    private static final class Budget {
+        
+        private final String type;
+        private final AgentProperties.Admission.Limit limit;
+        private final Cache<String, RateLimiter> limiters;
+        private final Semaphore concurrency;
+        private final Counter accepted;
+        private final Counter rateLimited;
+        private final Counter concurrencyLimited;
+        
+        private Budget(String type, AgentProperties.Admission.Limit limit, AgentProperties.Admission config,
+                       MeterRegistry meterRegistry) {
+            this.type = type;
+            this.limit = limit;
+            // Un client inactif retrouve un seau plein : l'entrée peut être oubliée sans effet
+            this.limiters = Caffeine.newBuilder()
+                    .maximumSize(config.getMaxClients())
+                    .expireAfterAccess(config.getClientIdleTimeout())
+                    .build();
+            this.concurrency = new Semaphore(limit.getMaxConcurrent());
+            this.accepted = meterRegistry.counter("agents.admission.requests", "type", type, "result", "accepted");
+            this.rateLimited = meterRegistry.counter("agents.admission.requests", "type", type, "result", "rate_limited");
+            this.concurrencyLimited = meterRegistry.counter("agents.admission.requests", "type", type,
+                    "result", "concurrency_limited");
+            Gauge.builder("agents.admission.in.flight", concurrency,
+                            semaphore -> limit.getMaxConcurrent() - semaphore.availablePermits())
+                    .tag("type", type)
+                    .register(meterRegistry);
+            Gauge.builder("agents.admission.clients", limiters, Cache::estimatedSize)
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+        
+        private RateLimiter limiter(String client) {
+            return limiters.get(client, key -> new RateLimiter(limit.getPermitsPerSecond(), limit.getBurst(),
+                    System.nanoTime()));
+        }
+    }
+}
@@ -1,14 +1,34 @@
 package com.example.agents.controller;
 
+import com.example.agents.config.AgentProperties;
+import com.example.agents.dto.AgentCacheStats;
+import com.example.agents.dto.AgentSearchCriteria;
+import com.example.agents.dto.AgentStats;
+import com.example.agents.dto.AgentSummary;
+import com.example.agents.dto.AgentVersion;
+import com.example.agents.dto.BulkImportReport;
 import com.example.agents.model.Agent;
+import com.example.agents.service.AgentImportService;
 import com.example.agents.service.AgentService;
+import com.example.agents.util.ETags;
+import com.example.agents.util.SingleFlight;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -18,34 +38,141 @@ import java.util.List;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class AgentController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String SUMMARY_VIEW = "summary";
+    private static final String FULL_VIEW = "full";
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    private static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    
     private final AgentService agentService;
+    private final AgentImportService agentImportService;
+    private final AgentProperties agentProperties;
+    private final ObjectMapper objectMapper;
     
-    // Récupère tous les agents
-    @GetMapping("/agents")
-    public ResponseEntity<List<Agent>> getAllAgents() {
+    // Récupère les agents page par page (?after=<userId>&limit=N, ?view=summary pour la vue résumée).
+    // If-None-Match est comparé aux versions seules : 304 sans charger ni sérialiser les agents.
+    // Sinon l'ETag renvoyé est celui des agents effectivement retournés (lecture éventuellement regroupée)
+    // Négociation par Accept : JSON par défaut, CBOR ou Smile pour les appels entre services
+    @GetMapping(value = "/agents", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE})
+    public ResponseEntity<List<?>> getAllAgents(@RequestParam(required = false) String after,
+                                                @RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) String view,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Agent> agents = agentService.getAllAgents();
+            int pageSize = agentProperties.getPagination().resolveLimit(limit);
+            boolean summary = SUMMARY_VIEW.equalsIgnoreCase(view);
+            String viewName = summary ? SUMMARY_VIEW : FULL_VIEW;
+            List<AgentVersion> versions = agentService.getAgentVersionsPage(after, pageSize);
+            String currentEtag = ETags.forVersions(viewName, versions);
+            if (ETags.matches(ifNoneMatch, currentEtag)) {
+                log.info("Page d'agents inchangée ({})", currentEtag);
+                return page(HttpStatus.NOT_MODIFIED, currentEtag, versions, pageSize, view).build();
+            }
+            
+            List<?> agents;
+            List<AgentVersion> returned;
+            if (summary) {
+                List<AgentSummary> summaries = agentService.getAgentSummariesPage(after, pageSize);
+                agents = summaries;
+                returned = summaries.stream().map(s -> new AgentVersion(s.userId(), s.version())).toList();
+            } else {
+                List<Agent> fullAgents = agentService.getAgentsByIds(versions.stream().map(AgentVersion::userId).toList());
+                agents = fullAgents;
+                // Curseur issu des versions : un agent supprimé entre-temps ne décale pas la pagination
+                returned = versionsOf(fullAgents);
+            }
             log.info("Retour de {} agents", agents.size());
-            return ResponseEntity.ok(agents);
+            return page(HttpStatus.OK, ETags.forVersions(viewName, returned), summary ? returned : versions, pageSize, view)
+                    .body(agents);
+        } catch (SingleFlight.WaitTimeoutException e) {
+            log.warn("Chargement de la page d'agents trop long, requête refusée");
+            return serviceUnavailable();
         } catch (Exception e) {
             log.error("Erreur lors de la récupération des agents: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    // Recherche filtrée (actif, rôle, statut, pays/région, préfixe de nom, période de création)
+    @GetMapping(value = "/agents/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE})
+    public ResponseEntity<List<Agent>> searchAgents(@ModelAttribute AgentSearchCriteria criteria,
+                                                    @RequestParam(required = false) String after,
+                                                    @RequestParam(required = false) Integer limit) {
+        try {
+            int pageSize = agentProperties.getPagination().resolveLimit(limit);
+            List<Agent> agents = agentService.searchAgents(criteria, after, pageSize);
+            log.info("Recherche: {} agents retournés", agents.size());
+            
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+            if (agents.size() == pageSize) {
+                response.header(NEXT_CURSOR_HEADER, agents.get(agents.size() - 1).getUserId());
+            }
+            return response.body(agents);
+        } catch (Exception e) {
+            log.error("Erreur lors de la recherche des agents: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Récupère tous les agents en flux NDJSON (?stream=true), un agent par ligne
+    @GetMapping(value = "/agents", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllAgents() {
+        ObjectWriter writer = objectMapper.writerFor(Agent.class);
+        StreamingResponseBody body = out -> {
+            try {
+                agentService.forEachAgent(agent -> {
+                    try {
+                        out.write(writer.writeValueAsBytes(agent));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                log.warn("Flux des agents interrompu: {}", e.getMessage());
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
+    // Statistiques du cache des agents
+    @GetMapping("/agents/cache/stats")
+    public ResponseEntity<AgentCacheStats> getCacheStats() {
+        return ResponseEntity.ok(agentService.getCacheStats());
+    }
+    
+    // Comptages par statut actif, rôle, statut, pays et genre (mémoire, sans requête)
+    @GetMapping("/agents/stats")
+    public ResponseEntity<AgentStats> getStatistics() {
+        return ResponseEntity.ok(agentService.getStatistics());
+    }
+    
     // Récupère un agent par ID 
     @GetMapping("/{userId}")
-    public ResponseEntity<Agent> getAgentById(@PathVariable String userId) {
+    public ResponseEntity<Agent> getAgentById(@PathVariable String userId,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             return agentService.getAgentById(userId)
                     .map(agent -> {
+                        String etag = ETags.forVersion(agent.getVersion());
+                        if (ETags.matches(ifNoneMatch, etag)) {
+                            log.info("Agent inchangé: {}", userId);
+                            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT)
+                                    .<Agent>build();
+                        }
                         log.info("Agent trouvé: {}", userId);
-                        return ResponseEntity.ok(agent);
+                        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(agent);
                     })
                     .orElseGet(() -> {
                         log.warn("Agent non trouvé: {}", userId);
                         return ResponseEntity.notFound().build();
                     });
+        } catch (SingleFlight.WaitTimeoutException e) {
+            log.warn("Chargement de l'agent {} trop long, requête refusée", userId);
+            return serviceUnavailable();
         } catch (Exception e) {
             log.error("Erreur lors de la récupération de l'agent {}: {}", userId, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -69,14 +196,34 @@ public class AgentController {
         }
     }
     
+    // Import en masse d'agents (tableau JSON ou NDJSON)
+    @PostMapping(value = "/agents/bulk",
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importAgents(InputStream body) {
+        try {
+            BulkImportReport report = agentImportService.importAgents(body);
+            log.info("Import en masse: {} créés, {} rejetés", report.created(), report.rejected());
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            log.error("Erreur inattendue lors de l'import en masse: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("{\"error\": \"Internal server error\"}");
+        }
+    }
+    
     // Met à jour un agent 
     @PutMapping("/{userId}")
     public ResponseEntity<?> updateAgent(@PathVariable String userId, 
-                                        @Valid @RequestBody Agent agentDetails) {
+                                        @Valid @RequestBody Agent agentDetails,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Agent updatedAgent = agentService.updateAgent(userId, agentDetails);
+            Agent updatedAgent = agentService.updateAgent(userId, agentDetails, ETags.parseVersion(ifMatch));
             log.info("Agent mis à jour avec succès: {}", userId);
-            return ResponseEntity.ok(updatedAgent);
+            return ResponseEntity.ok().eTag(ETags.forVersion(updatedAgent.getVersion())).varyBy(HttpHeaders.ACCEPT)
+                    .body(updatedAgent);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Version obsolète pour la mise à jour de l'agent: {}", userId);
+            return preconditionFailed();
         } catch (RuntimeException e) {
             if (e.getMessage().contains("not found")) {
                 log.warn("Agent non trouvé pour la mise à jour: {}", userId);
@@ -91,11 +238,37 @@ public class AgentController {
         }
     }
     
+    // Met à jour partiellement un agent (JSON Merge Patch) : 204 avec l'ETag de la nouvelle version
+    @PatchMapping(value = "/{userId}", consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patchAgent(@PathVariable String userId, @RequestBody JsonNode patch,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            long version = agentService.patchAgent(userId, patch, ETags.parseVersion(ifMatch));
+            log.info("Agent modifié avec succès: {}", userId);
+            return ResponseEntity.noContent().eTag(ETags.forVersion(version)).varyBy(HttpHeaders.ACCEPT).build();
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Version obsolète pour la modification de l'agent: {}", userId);
+            return preconditionFailed();
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                log.warn("Agent non trouvé pour la modification: {}", userId);
+                return ResponseEntity.notFound().build();
+            }
+            log.error("Erreur lors de la modification de l'agent {}: {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
+        } catch (Exception e) {
+            log.error("Erreur inattendue lors de la modification de l'agent {}: {}", userId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("{\"error\": \"Internal server error\"}");
+        }
+    }
+    
     // Supprime un agent
     @DeleteMapping("/{userId}")
-    public ResponseEntity<?> deleteAgent(@PathVariable String userId) {
+    public ResponseEntity<?> deleteAgent(@PathVariable String userId,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            boolean deleted = agentService.deleteAgent(userId);
+            boolean deleted = agentService.deleteAgent(userId, ETags.parseVersion(ifMatch));
             if (deleted) {
                 log.info("Agent supprimé avec succès: {}", userId);
                 return ResponseEntity.ok().body("{\"message\": \"Agent deleted successfully\"}");
@@ -103,6 +276,9 @@ public class AgentController {
                 log.warn("Agent non trouvé pour la suppression: {}", userId);
                 return ResponseEntity.notFound().build();
             }
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Version obsolète pour la suppression de l'agent: {}", userId);
+            return preconditionFailed();
         } catch (Exception e) {
             log.error("Erreur lors de la suppression de l'agent {}: {}", userId, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -110,16 +286,70 @@ public class AgentController {
         }
     }
     
-    // Récupère les agents actifs
-    @GetMapping("/agents/active")
-    public ResponseEntity<List<Agent>> getActiveAgents() {
+    // Récupère les agents actifs (?view=summary pour la vue résumée)
+    @GetMapping(value = "/agents/active", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE})
+    public ResponseEntity<List<?>> getActiveAgents(@RequestParam(required = false) String view,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Agent> activeAgents = agentService.getActiveAgents();
+            boolean summary = SUMMARY_VIEW.equalsIgnoreCase(view);
+            String viewName = summary ? SUMMARY_VIEW : FULL_VIEW;
+            String currentEtag = ETags.forVersions(viewName, agentService.getActiveAgentVersions());
+            if (ETags.matches(ifNoneMatch, currentEtag)) {
+                log.info("Agents actifs inchangés ({})", currentEtag);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentEtag).build();
+            }
+            
+            // ETag des agents retournés, et non des versions lues juste avant
+            List<?> activeAgents;
+            List<AgentVersion> returned;
+            if (summary) {
+                List<AgentSummary> summaries = agentService.getActiveAgentSummaries();
+                activeAgents = summaries;
+                returned = summaries.stream().map(s -> new AgentVersion(s.userId(), s.version())).toList();
+            } else {
+                List<Agent> agents = agentService.getActiveAgents();
+                activeAgents = agents;
+                returned = versionsOf(agents);
+            }
             log.info("Retour de {} agents actifs", activeAgents.size());
-            return ResponseEntity.ok(activeAgents);
+            return ResponseEntity.ok().eTag(ETags.forVersions(viewName, returned)).varyBy(HttpHeaders.ACCEPT)
+                    .body(activeAgents);
+        } catch (SingleFlight.WaitTimeoutException e) {
+            log.warn("Chargement des agents actifs trop long, requête refusée");
+            return serviceUnavailable();
         } catch (Exception e) {
             log.error("Erreur lors de la récupération des agents actifs: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+    
+    // En-têtes d'une page : ETag, Vary et, si la page est pleine, curseur de la page suivante (dernier userId)
+    private static ResponseEntity.BodyBuilder page(HttpStatus status, String etag, List<AgentVersion> keys,
+                                                   int pageSize, String view) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status).eTag(etag).varyBy(HttpHeaders.ACCEPT);
+        if (keys.size() == pageSize) {
+            String nextCursor = keys.get(keys.size() - 1).userId();
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+            response.header(HttpHeaders.LINK, "</api/v1/agents?after=" + nextCursor + "&limit=" + pageSize
+                    + (view != null ? "&view=" + view : "") + ">; rel=\"next\"");
+        }
+        return response;
+    }
+    
+    private static List<AgentVersion> versionsOf(List<Agent> agents) {
+        return agents.stream().map(agent -> new AgentVersion(agent.getUserId(), agent.getVersion())).toList();
+    }
+    
+    // 503 + Retry-After : le chargement partagé n'a pas abouti dans agents.coalescing.max-wait
+    private <T> ResponseEntity<T> serviceUnavailable() {
+        long retryAfter = Math.max(1, agentProperties.getCoalescing().getMaxWait().toSeconds());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter))
+                .build();
+    }
+    
+    private ResponseEntity<?> preconditionFailed() {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body("{\"error\": \"Agent has been modified, reload it and retry\"}");
+    }
 }
\ No newline at end of file
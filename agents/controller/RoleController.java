@@ -0,0 +1,51 @@
+package com.example.agents.controller;
+
+import com.example.agents.dto.RoleAssignmentRequest;
+import com.example.agents.dto.RoleAssignmentResult;
+import com.example.agents.service.RoleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/roles")
+@RequiredArgsConstructor
+@Slf4j
+public class RoleController {
+    
+    private final RoleService roleService;
+    
+    // Attribue un rôle à une liste d'agents ({"userIds": [...]}) ou aux agents d'un filtre ({"filter": {...}})
+    @PostMapping("/{name}/grant")
+    public ResponseEntity<?> grantRole(@PathVariable String name, @RequestBody RoleAssignmentRequest request) {
+        try {
+            RoleAssignmentResult result = roleService.grantRole(name, request);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            return error(e);
+        }
+    }
+    
+    // Retire un rôle à une liste d'agents ou aux agents d'un filtre
+    @PostMapping("/{name}/revoke")
+    public ResponseEntity<?> revokeRole(@PathVariable String name, @RequestBody RoleAssignmentRequest request) {
+        try {
+            RoleAssignmentResult result = roleService.revokeRole(name, request);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            return error(e);
+        }
+    }
+    
+    private ResponseEntity<?> error(RuntimeException e) {
+        if (e.getMessage() != null && e.getMessage().contains("required")) {
+            log.warn("Requête d'attribution invalide: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
+        }
+        log.error("Erreur lors de l'attribution du rôle: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("{\"error\": \"Internal server error\"}");
+    }
+}
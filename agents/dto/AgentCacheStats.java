@@ -0,0 +1,5 @@
+package com.example.agents.dto;
+
+// Compteurs du cache des agents
+public record AgentCacheStats(long size, long hits, long misses, double hitRate, long evictions) {
+}
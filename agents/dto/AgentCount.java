@@ -0,0 +1,5 @@
+package com.example.agents.dto;
+
+// Ligne d'un GROUP BY : valeur de la dimension et nombre d'agents
+public record AgentCount(String value, Long count) {
+}
@@ -0,0 +1,6 @@
+package com.example.agents.dto;
+
+// Résultat d'une suppression logique : deleted = false si la version attendue ne correspond pas ;
+// before = valeurs comptées par les statistiques, lues par la même instruction avant modification
+public record AgentDeletion(boolean deleted, AgentProfile before) {
+}
@@ -0,0 +1,29 @@
+package com.example.agents.dto;
+
+import com.example.agents.model.Agent;
+import com.example.agents.model.Role;
+
+import java.util.Collection;
+import java.util.List;
+
+// Valeurs d'un agent comptées par les statistiques (actif, genre, statut, pays, rôles)
+public record AgentProfile(Boolean active, String gender, String status, String country, Collection<String> roles) {
+    
+    // Construit par la requête JPQL, les rôles sont ajoutés ensuite
+    public AgentProfile(Boolean active, String gender, String status, String country) {
+        this(active, gender, status, country, List.of());
+    }
+    
+    public AgentProfile withRoles(Collection<String> roles) {
+        return new AgentProfile(active, gender, status, country, roles);
+    }
+    
+    public static AgentProfile from(Agent agent) {
+        return new AgentProfile(
+                agent.getActive(),
+                agent.getGender(),
+                agent.getUserInfo() != null ? agent.getUserInfo().getStatus() : null,
+                agent.getUserAddress() != null ? agent.getUserAddress().getCountry() : null,
+                agent.getRoles() != null ? agent.getRoles().stream().map(Role::getName).toList() : List.of());
+    }
+}
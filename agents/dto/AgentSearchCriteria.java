@@ -0,0 +1,32 @@
+package com.example.agents.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Filtres de GET /api/v1/agents/search (tous optionnels, combinés en ET)
+@Data
+public class AgentSearchCriteria {
+    
+    private Boolean active;
+    
+    // Nom de rôle exact (ex. ROLE_ADMIN)
+    private String role;
+    
+    // UserInfo.status
+    private String status;
+    
+    // UserAddress.country / state
+    private String country;
+    private String state;
+    
+    // Préfixe (insensible à la casse) du username ou du fullName
+    private String q;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+}
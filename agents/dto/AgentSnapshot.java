@@ -0,0 +1,114 @@
+package com.example.agents.dto;
+
+import com.example.agents.model.Agent;
+import com.example.agents.model.Role;
+import com.example.agents.model.UserAddress;
+import com.example.agents.model.UserInfo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Copie immuable d'un agent et de ses relations, partagée sans risque entre threads
+public record AgentSnapshot(String userId,
+                            String username,
+                            String fullName,
+                            String gender,
+                            String email,
+                            String emailPec,
+                            LocalDate dateOfBirth,
+                            LocalDateTime lastLogin,
+                            LocalDateTime createdAt,
+                            Boolean active,
+                            Long version,
+                            List<RoleSnapshot> roles,
+                            UserInfoSnapshot userInfo,
+                            UserAddressSnapshot userAddress) {
+
+    public record RoleSnapshot(Long id, String name) {
+    }
+
+    public record UserInfoSnapshot(Long id,
+                                   String status,
+                                   LocalDateTime deleteDate,
+                                   Boolean adminUser,
+                                   Boolean emailPecVerified,
+                                   Boolean temporalPassword) {
+    }
+
+    public record UserAddressSnapshot(Long id, String country, String state, String addressLine, Integer zipCode) {
+    }
+
+    public static AgentSnapshot from(Agent agent) {
+        List<RoleSnapshot> roles = agent.getRoles() == null ? null : agent.getRoles().stream()
+                .map(role -> new RoleSnapshot(role.getId(), role.getName()))
+                .toList();
+        UserInfo info = agent.getUserInfo();
+        UserAddress address = agent.getUserAddress();
+        return new AgentSnapshot(
+                agent.getUserId(),
+                agent.getUsername(),
+                agent.getFullName(),
+                agent.getGender(),
+                agent.getEmail(),
+                agent.getEmailPec(),
+                agent.getDateOfBirth(),
+                agent.getLastLogin(),
+                agent.getCreatedAt(),
+                agent.getActive(),
+                agent.getVersion(),
+                roles,
+                info == null ? null : new UserInfoSnapshot(info.getId(), info.getStatus(), info.getDeleteDate(),
+                        info.getAdminUser(), info.getEmailPecVerified(), info.getTemporalPassword()),
+                address == null ? null : new UserAddressSnapshot(address.getId(), address.getCountry(),
+                        address.getState(), address.getAddressLine(), address.getZipCode()));
+    }
+
+    // Reconstruit un agent détaché : chaque appelant reçoit sa propre copie modifiable
+    public Agent toAgent() {
+        Agent agent = Agent.builder()
+                .userId(userId)
+                .username(username)
+                .fullName(fullName)
+                .gender(gender)
+                .email(email)
+                .emailPec(emailPec)
+                .dateOfBirth(dateOfBirth)
+                .lastLogin(lastLogin)
+                .createdAt(createdAt)
+                .active(active)
+                .version(version)
+                .newEntity(false)
+                .build();
+        if (roles != null) {
+            List<Role> agentRoles = new ArrayList<>(roles.size());
+            for (RoleSnapshot role : roles) {
+                agentRoles.add(Role.builder().id(role.id()).name(role.name()).agent(agent).build());
+            }
+            agent.setRoles(agentRoles);
+        }
+        if (userInfo != null) {
+            agent.setUserInfo(UserInfo.builder()
+                    .id(userInfo.id())
+                    .status(userInfo.status())
+                    .deleteDate(userInfo.deleteDate())
+                    .adminUser(userInfo.adminUser())
+                    .emailPecVerified(userInfo.emailPecVerified())
+                    .temporalPassword(userInfo.temporalPassword())
+                    .agent(agent)
+                    .build());
+        }
+        if (userAddress != null) {
+            agent.setUserAddress(UserAddress.builder()
+                    .id(userAddress.id())
+                    .country(userAddress.country())
+                    .state(userAddress.state())
+                    .addressLine(userAddress.addressLine())
+                    .zipCode(userAddress.zipCode())
+                    .agent(agent)
+                    .build());
+        }
+        return agent;
+    }
+}
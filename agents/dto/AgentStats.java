@@ -0,0 +1,16 @@
+package com.example.agents.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Statistiques agrégées des agents (hors agents supprimés), servies depuis la mémoire
+public record AgentStats(
+        long total,
+        Map<String, Long> active,
+        Map<String, Long> roles,
+        Map<String, Long> statuses,
+        Map<String, Long> countries,
+        Map<String, Long> genders,
+        LocalDateTime seededAt
+) {
+}
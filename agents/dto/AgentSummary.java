@@ -0,0 +1,6 @@
+package com.example.agents.dto;
+
+// Vue résumée d'un agent (?view=summary), construite directement par la requête JPQL.
+// La version sert au calcul de l'ETag de la liste retournée
+public record AgentSummary(String userId, String username, String fullName, String email, Boolean active, Long version) {
+}
@@ -0,0 +1,5 @@
+package com.example.agents.dto;
+
+// Colonnes uniques d'un agent (username, email)
+public record AgentUniqueKeys(String username, String email) {
+}
@@ -0,0 +1,5 @@
+package com.example.agents.dto;
+
+// Identifiant et version d'un agent : suffisant pour calculer l'ETag d'une liste sans charger les agents
+public record AgentVersion(String userId, Long version) {
+}
@@ -0,0 +1,14 @@
+package com.example.agents.dto;
+
+import java.util.List;
+
+// Rapport d'import en masse : compteurs et détail ligne par ligne
+public record BulkImportReport(int created, int rejected, List<BulkImportResult> results) {
+
+    public static BulkImportReport of(List<BulkImportResult> results) {
+        int created = (int) results.stream()
+                .filter(result -> result.status() == BulkImportResult.Status.CREATED)
+                .count();
+        return new BulkImportReport(created, results.size() - created, results);
+    }
+}
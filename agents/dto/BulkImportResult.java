@@ -0,0 +1,18 @@
+package com.example.agents.dto;
+
+// Résultat de l'import d'une ligne (index = position dans le flux d'entrée)
+public record BulkImportResult(int index, String username, String userId, Status status, String error) {
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    public static BulkImportResult created(int index, String username, String userId) {
+        return new BulkImportResult(index, username, userId, Status.CREATED, null);
+    }
+
+    public static BulkImportResult rejected(int index, String username, String error) {
+        return new BulkImportResult(index, username, null, Status.REJECTED, error);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.agents.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+// Corps de POST /api/v1/roles/{name}/grant et /revoke : liste d'agents ou filtre de recherche (l'un ou l'autre)
+@Data
+public class RoleAssignmentRequest {
+    
+    private List<String> userIds;
+    
+    private AgentSearchCriteria filter;
+}
@@ -0,0 +1,5 @@
+package com.example.agents.dto;
+
+// Résultat d'une attribution / d'un retrait en masse : agents ciblés et agents réellement modifiés
+public record RoleAssignmentResult(String role, int matched, int changed) {
+}
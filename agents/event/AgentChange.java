@@ -0,0 +1,13 @@
+package com.example.agents.event;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Événement en attente d'écriture (sérialisé par AgentEventWriter, hors du thread de la requête)
+public record AgentChange(
+        AgentEventType type,
+        String userId,
+        Map<String, Object> payload,
+        LocalDateTime occurredAt
+) {
+}
@@ -0,0 +1,81 @@
+package com.example.agents.event;
+
+import com.example.agents.config.AgentProperties;
+import com.example.agents.util.BoundedRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Slf4j
+public class AgentEventPublisher {
+    
+    private final BoundedRingBuffer<AgentChange> buffer;
+    private final Counter published;
+    private final Counter dropped;
+    
+    public AgentEventPublisher(AgentProperties agentProperties, MeterRegistry meterRegistry) {
+        this.buffer = new BoundedRingBuffer<>(agentProperties.getEvents().getCapacity());
+        this.published = meterRegistry.counter("agents.events.published");
+        this.dropped = meterRegistry.counter("agents.events.dropped");
+        Gauge.builder("agents.events.buffer.size", buffer, BoundedRingBuffer::size)
+                .description("Événements en attente d'écriture")
+                .register(meterRegistry);
+        Gauge.builder("agents.events.buffer.capacity", buffer, BoundedRingBuffer::capacity)
+                .register(meterRegistry);
+    }
+    
+    // Publie un événement une fois la transaction en cours validée (immédiatement hors transaction)
+    public void publish(AgentEventType type, String userId, Map<String, Object> payload) {
+        AgentChange change = new AgentChange(type, userId, payload, LocalDateTime.now());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            offer(change);
+            return;
+        }
+        
+        // Un seul enregistrement par transaction : les événements sont regroupés jusqu'au commit
+        @SuppressWarnings("unchecked")
+        List<AgentChange> pending = (List<AgentChange>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<AgentChange> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changes.forEach(AgentEventPublisher.this::offer);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AgentEventPublisher.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.add(change);
+    }
+    
+    // Jamais bloquant : si le tampon est plein, l'événement est compté comme perdu
+    private void offer(AgentChange change) {
+        if (buffer.offer(change)) {
+            published.increment();
+        } else {
+            dropped.increment();
+            log.warn("Tampon d'événements plein, événement {} perdu pour l'agent: {}", change.type(), change.userId());
+        }
+    }
+    
+    int drainTo(Collection<AgentChange> target, int maxItems) {
+        return buffer.drainTo(target, maxItems);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.agents.event;
+
+public enum AgentEventType {
+    CREATED,
+    UPDATED,
+    PATCHED,
+    ROLES_CHANGED,
+    DELETED,
+    PURGED
+}
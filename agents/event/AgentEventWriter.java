@@ -0,0 +1,93 @@
+package com.example.agents.event;
+
+import com.example.agents.config.AgentProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+// Vide le tampon d'événements par lots dans agent_events, sur le thread du planificateur
+@Component
+@Slf4j
+public class AgentEventWriter {
+    
+    private static final String INSERT_EVENT =
+            "INSERT INTO agent_events (user_id, type, payload, occurred_at) VALUES (?, ?, ?, ?)";
+    
+    private final AgentEventPublisher publisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer flushTimer;
+    
+    public AgentEventWriter(AgentEventPublisher publisher, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                            AgentProperties agentProperties, MeterRegistry meterRegistry) {
+        this.publisher = publisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = agentProperties.getEvents().getBatchSize();
+        this.written = meterRegistry.counter("agents.events.written");
+        this.failed = meterRegistry.counter("agents.events.failed");
+        this.flushTimer = meterRegistry.timer("agents.events.flush");
+    }
+    
+    @Scheduled(fixedDelayString = "#{@agentProperties.events.flushInterval.toMillis()}")
+    public void flush() {
+        List<AgentChange> batch = new ArrayList<>(batchSize);
+        // Continue tant que des lots complets sont disponibles
+        while (publisher.drainTo(batch, batchSize) > 0) {
+            flushTimer.record(() -> write(batch));
+            boolean full = batch.size() == batchSize;
+            batch.clear();
+            if (!full) {
+                break;
+            }
+        }
+    }
+    
+    // Dernière vidange à l'arrêt de l'application
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    private void write(List<AgentChange> batch) {
+        try {
+            // Un seul aller-retour par lot (reWriteBatchedInserts côté driver)
+            jdbcTemplate.batchUpdate(INSERT_EVENT, batch, batch.size(), (ps, change) -> {
+                ps.setString(1, change.userId());
+                ps.setString(2, change.type().name());
+                ps.setString(3, toJson(change));
+                ps.setTimestamp(4, Timestamp.valueOf(change.occurredAt()));
+            });
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.error("Échec de l'écriture de {} événements: {}", batch.size(), e.getMessage());
+        }
+    }
+    
+    private String toJson(AgentChange change) {
+        if (change.payload() == null || change.payload().isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(change.payload());
+        } catch (JsonProcessingException e) {
+            log.warn("Événement {} non sérialisable pour l'agent: {}", change.type(), change.userId());
+            return null;
+        }
+    }
+}
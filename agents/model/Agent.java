@@ -4,18 +4,30 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "agents")
+@DynamicUpdate
+@SQLRestriction("deleted_at is null")
+@Table(name = "agents", indexes = {
+        @Index(name = "idx_agents_active", columnList = "active, user_id"),
+        @Index(name = "idx_agents_created_at", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Agent {
+public class Agent implements Persistable<String> {
     
     @Id
     @Column(name = "user_id", unique = true, nullable = false)
@@ -58,8 +70,20 @@ public class Agent {
     @Builder.Default
     private Boolean active = true;
     
+    // Suppression logique : l'agent n'est plus visible, la ligne est purgée plus tard par AgentPurger
+    @Column(name = "deleted_at")
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+    
+    // Verrouillage optimiste : incrémentée à chaque modification de l'agrégat (sert aussi d'ETag)
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long version;
+    
     // Relations
     @OneToMany(mappedBy = "agent", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Role> roles;
     
     @OneToOne(mappedBy = "agent", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -68,8 +92,34 @@ public class Agent {
     @OneToOne(mappedBy = "agent", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private UserAddress userAddress;
     
+    // Identifiant attribué par l'application : évite le SELECT du merge() à la création
+    @Transient
+    @JsonIgnore
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
+    
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
     }
+    
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        this.newEntity = false;
+    }
+    
+    @Override
+    @JsonIgnore
+    public String getId() {
+        return userId;
+    }
+    
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntity;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.agents.model;
+
+import com.example.agents.event.AgentEventType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Journal des modifications (ajout seul), alimenté par AgentEventWriter
+@Entity
+@Table(name = "agent_events", indexes = {
+        @Index(name = "idx_agent_events_user", columnList = "user_id, id"),
+        @Index(name = "idx_agent_events_occurred_at", columnList = "occurred_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AgentEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private AgentEventType type;
+    
+    // Détail de la modification en JSON
+    @Column(length = 4000)
+    private String payload;
+    
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
@@ -2,10 +2,19 @@ package com.example.agents.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "roles")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "roles", indexes = {
+        @Index(name = "idx_roles_agent", columnList = "agent_user_id"),
+        @Index(name = "idx_roles_name_agent", columnList = "name, agent_user_id")
+}, uniqueConstraints = {
+        // Un rôle au plus une fois par agent (cible de ON CONFLICT pour l'attribution en masse)
+        @UniqueConstraint(name = "uk_roles_agent_name", columnNames = {"agent_user_id", "name"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,7 +22,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 public class Role {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "roles_seq")
+    @SequenceGenerator(name = "roles_seq", sequenceName = "roles_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
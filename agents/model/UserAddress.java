@@ -2,10 +2,18 @@ package com.example.agents.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "user_address")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@Table(name = "user_address", indexes = {
+        @Index(name = "idx_user_address_agent", columnList = "agent_user_id"),
+        @Index(name = "idx_user_address_country_state", columnList = "country, state, agent_user_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,7 +21,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 public class UserAddress {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_address_seq")
+    @SequenceGenerator(name = "user_address_seq", sequenceName = "user_address_seq", allocationSize = 50)
     private Long id;
     
     private String country;
@@ -2,13 +2,21 @@ package com.example.agents.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonFormat;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_info")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@Table(name = "user_info", indexes = {
+        @Index(name = "idx_user_info_agent", columnList = "agent_user_id"),
+        @Index(name = "idx_user_info_status", columnList = "status, agent_user_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +24,8 @@ import java.time.LocalDateTime;
 public class UserInfo {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_info_seq")
+    @SequenceGenerator(name = "user_info_seq", sequenceName = "user_info_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
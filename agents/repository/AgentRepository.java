@@ -1,35 +1,145 @@
 package com.example.agents.repository;
 
+import com.example.agents.dto.AgentCount;
+import com.example.agents.dto.AgentProfile;
+import com.example.agents.dto.AgentSummary;
+import com.example.agents.dto.AgentUniqueKeys;
+import com.example.agents.dto.AgentVersion;
 import com.example.agents.model.Agent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface AgentRepository extends JpaRepository<Agent, String> {
+public interface AgentRepository extends JpaRepository<Agent, String>, AgentRepositoryCustom {
     
-    // Recherche agent par nom
+    // Recherche agent par nom (relations chargées : open-in-view est désactivé)
+    @EntityGraph(attributePaths = {"roles", "userInfo", "userAddress"})
     Optional<Agent> findByUsername(String username);
     
     // Recherche agent par adresse email
+    @EntityGraph(attributePaths = {"roles", "userInfo", "userAddress"})
     Optional<Agent> findByEmail(String email);
     
-    // Recherche agents par statut 
+    // Recherche agents par statut (relations chargées dans la même requête, pas de N+1),
+    // résultat conservé dans le cache de requêtes jusqu'à la prochaine écriture sur ces tables
+    @EntityGraph(attributePaths = {"roles", "userInfo", "userAddress"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Agent> findByActive(Boolean active);
     
     // Récupère tous les agents
     @Query("SELECT a FROM Agent a LEFT JOIN FETCH a.roles LEFT JOIN FETCH a.userInfo LEFT JOIN FETCH a.userAddress")
     List<Agent> findAllWithRelations();
     
+    // Pagination par curseur : identifiants de la page suivante
+    @Query("SELECT a.userId FROM Agent a WHERE a.userId > :after ORDER BY a.userId")
+    List<String> findUserIdsAfter(@Param("after") String after, Limit limit);
+    
+    // Versions d'une page / des agents actifs (calcul des ETags sans charger les agents)
+    @Query("SELECT new com.example.agents.dto.AgentVersion(a.userId, a.version) FROM Agent a WHERE a.userId > :after ORDER BY a.userId")
+    List<AgentVersion> findVersionsAfter(@Param("after") String after, Limit limit);
+    
+    @Query("SELECT new com.example.agents.dto.AgentVersion(a.userId, a.version) FROM Agent a WHERE a.active = :active ORDER BY a.userId")
+    List<AgentVersion> findVersionsByActive(@Param("active") Boolean active);
+    
+    @Query("SELECT a.version FROM Agent a WHERE a.userId = :userId")
+    Optional<Long> findVersion(@Param("userId") String userId);
+    
+    // Récupère les agents d'une page avec leurs relations (cache de requêtes, page bornée par max-limit)
+    @Query("SELECT a FROM Agent a LEFT JOIN FETCH a.roles LEFT JOIN FETCH a.userInfo LEFT JOIN FETCH a.userAddress WHERE a.userId IN :userIds ORDER BY a.userId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Agent> findAllWithRelationsByUserIdIn(@Param("userIds") Collection<String> userIds);
+    
+    // Vues résumées : projection par constructeur, sans jointure ni entité gérée
+    @Query("SELECT new com.example.agents.dto.AgentSummary(a.userId, a.username, a.fullName, a.email, a.active, a.version) FROM Agent a WHERE a.userId > :after ORDER BY a.userId")
+    List<AgentSummary> findSummariesAfter(@Param("after") String after, Limit limit);
+    
+    @Query("SELECT new com.example.agents.dto.AgentSummary(a.userId, a.username, a.fullName, a.email, a.active, a.version) FROM Agent a WHERE a.active = :active ORDER BY a.userId")
+    List<AgentSummary> findSummariesByActive(@Param("active") Boolean active);
+    
+    // Parcourt tous les agents en flux (curseur JDBC)
+    @Query("SELECT a FROM Agent a LEFT JOIN FETCH a.roles LEFT JOIN FETCH a.userInfo LEFT JOIN FETCH a.userAddress ORDER BY a.userId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Agent> streamAllWithRelations();
+    
     // Récupère agent par ID
     @Query("SELECT a FROM Agent a LEFT JOIN FETCH a.roles LEFT JOIN FETCH a.userInfo LEFT JOIN FETCH a.userAddress WHERE a.userId = :userId")
     Optional<Agent> findByUserIdWithRelations(@Param("userId") String userId);
     
-    // Vérification avant la création
-    boolean existsByUsername(String username);
-    boolean existsByEmail(String email);
+    // Vérification avant la création (agents supprimés logiquement compris)
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM agents WHERE username = :username)", nativeQuery = true)
+    boolean existsByUsername(@Param("username") String username);
+    
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM agents WHERE email = :email)", nativeQuery = true)
+    boolean existsByEmail(@Param("email") String email);
+    
+    // Vérifications ensemblistes pour l'import en masse (une requête par colonne).
+    // Requêtes natives pour l'unicité : un agent supprimé logiquement garde son username et son email jusqu'à la purge
+    @Query(value = "SELECT username FROM agents WHERE username IN (:usernames)", nativeQuery = true)
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+    
+    @Query(value = "SELECT email FROM agents WHERE email IN (:emails)", nativeQuery = true)
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    // Propriétaire d'un username / email (contrôle d'unicité du PATCH)
+    @Query(value = "SELECT user_id FROM agents WHERE username = :username", nativeQuery = true)
+    Optional<String> findUserIdByUsername(@Param("username") String username);
+    
+    @Query(value = "SELECT user_id FROM agents WHERE email = :email", nativeQuery = true)
+    Optional<String> findUserIdByEmail(@Param("email") String email);
+    
+    // Usernames / emails d'agents modifiés sur un autre nœud (index d'unicité local)
+    @Query("SELECT new com.example.agents.dto.AgentUniqueKeys(a.username, a.email) FROM Agent a WHERE a.userId IN :userIds")
+    List<AgentUniqueKeys> findUniqueKeysByUserIdIn(@Param("userIds") Collection<String> userIds);
+    
+    // Statistiques : comptages initiaux par dimension (agents supprimés exclus par la restriction de l'entité)
+    @Query("SELECT COUNT(a) FROM Agent a")
+    long countAgents();
+    
+    @Query("SELECT new com.example.agents.dto.AgentCount(CASE WHEN a.active = true THEN 'true' ELSE 'false' END, COUNT(a)) FROM Agent a GROUP BY a.active")
+    List<AgentCount> countByActive();
+    
+    @Query("SELECT new com.example.agents.dto.AgentCount(r.name, COUNT(DISTINCT a.userId)) FROM Role r JOIN r.agent a GROUP BY r.name")
+    List<AgentCount> countByRole();
+    
+    @Query("SELECT new com.example.agents.dto.AgentCount(u.status, COUNT(a)) FROM Agent a JOIN a.userInfo u GROUP BY u.status")
+    List<AgentCount> countByStatus();
+    
+    @Query("SELECT new com.example.agents.dto.AgentCount(ad.country, COUNT(a)) FROM Agent a LEFT JOIN a.userAddress ad GROUP BY ad.country")
+    List<AgentCount> countByCountry();
+    
+    @Query("SELECT new com.example.agents.dto.AgentCount(a.gender, COUNT(a)) FROM Agent a GROUP BY a.gender")
+    List<AgentCount> countByGender();
+    
+    // Statistiques exactes pendant un recalcul : transaction d'écriture en cours et instantané des comptages
+    @Query(value = "SELECT CAST(CAST(pg_current_xact_id() AS text) AS bigint)", nativeQuery = true)
+    Long currentTransactionId();
+    
+    @Query(value = "SELECT CAST(pg_current_snapshot() AS text)", nativeQuery = true)
+    String currentSnapshot();
+    
+    // Valeurs comptées d'un agent avant modification (sans les rôles)
+    @Query("SELECT new com.example.agents.dto.AgentProfile(a.active, a.gender, u.status, ad.country) FROM Agent a LEFT JOIN a.userInfo u LEFT JOIN a.userAddress ad WHERE a.userId = :userId")
+    Optional<AgentProfile> findProfile(@Param("userId") String userId);
+    
+    // Rôles d'un agent, par nom, sans charger l'agrégat
+    @Query("SELECT r.name FROM Role r WHERE r.agent.userId = :userId")
+    List<String> findRoleNames(@Param("userId") String userId);
+    
+    @Modifying
+    @Query("DELETE FROM Role r WHERE r.agent.userId = :userId AND r.name IN :names")
+    int deleteRoles(@Param("userId") String userId, @Param("names") Collection<String> names);
+    
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.example.agents.repository;
+
+import com.example.agents.dto.AgentDeletion;
+import com.example.agents.dto.AgentUniqueKeys;
+import com.example.agents.model.Agent;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Requêtes Criteria non exprimables en requêtes dérivées
+public interface AgentRepositoryCustom {
+    
+    // Identifiants des agents correspondant aux critères, après le curseur, triés par userId
+    List<String> searchUserIds(Specification<Agent> specification, String after, int limit);
+    
+    // UPDATE des seules colonnes fournies de l'agent (sans chargement de l'agrégat), version incrémentée ;
+    // expectedVersion non null : la ligne n'est modifiée que si la version correspond.
+    // Un agent supprimé logiquement n'est jamais modifié
+    int updateAgentColumns(String userId, Long expectedVersion, Map<String, Object> values);
+    
+    // Suppression logique en une instruction : agent (version incrémentée, condition If-Match) et UserInfo ;
+    // vide si l'agent n'existe pas ou est déjà supprimé
+    Optional<AgentDeletion> softDelete(String userId, Long expectedVersion, LocalDateTime deletedAt);
+    
+    // UPDATE des seules colonnes fournies d'une entité liée à l'agent (UserInfo, UserAddress)
+    int updateChildColumns(Class<?> childType, String userId, Map<String, Object> values);
+    
+    // Ajoute des rôles sans charger l'agent ni ses rôles existants
+    void addRoles(String userId, Collection<String> roleNames);
+    
+    // Attribue un rôle aux agents (non supprimés) qui ne l'ont pas encore, en une instruction ;
+    // retourne les agents modifiés
+    List<String> grantRole(String roleName, Collection<String> userIds);
+    
+    // Retire un rôle aux agents qui l'ont, en une instruction ; retourne les agents modifiés
+    List<String> revokeRole(String roleName, Collection<String> userIds);
+    
+    // Invalide le cache de second niveau après des écritures faites sur un autre nœud :
+    // rôles des agents donnés (de tous si userIds est null), entités liées et résultats de requêtes
+    void evictSecondLevelCache(Collection<String> userIds);
+    
+    // Chargement de l'index d'unicité : tous les agents, supprimés logiquement compris
+    Stream<AgentUniqueKeys> streamAllUniqueKeys();
+    
+    // Agents supprimés logiquement avant la date limite (les plus anciens d'abord)
+    List<String> findDeletedUserIds(LocalDateTime deletedBefore, int limit);
+    
+    // Suppression définitive, ensembliste, d'agents et de leurs relations
+    int purgeAgents(Collection<String> userIds);
+}
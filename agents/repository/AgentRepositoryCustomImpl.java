@@ -0,0 +1,333 @@
+package com.example.agents.repository;
+
+import com.example.agents.dto.AgentDeletion;
+import com.example.agents.dto.AgentProfile;
+import com.example.agents.dto.AgentUniqueKeys;
+import com.example.agents.model.Agent;
+import com.example.agents.model.Role;
+import com.example.agents.model.UserAddress;
+import com.example.agents.model.UserInfo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class AgentRepositoryCustomImpl implements AgentRepositoryCustom {
+    
+    private static final String AGENT_ROLES_REGION = Agent.class.getName() + ".roles";
+    // Séparateur des noms de rôles agrégés par softDelete (caractère de contrôle US, absent des noms)
+    private static final String ROLE_SEPARATOR = "\u001F";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<String> searchUserIds(Specification<Agent> specification, String after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = cb.createQuery(String.class);
+        Root<Agent> root = query.from(Agent.class);
+        
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = specification.toPredicate(root, query, cb);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (after != null) {
+            predicates.add(cb.greaterThan(root.get("userId"), after));
+        }
+        
+        query.select(root.get("userId"))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(root.get("userId")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    @Override
+    public int updateAgentColumns(String userId, Long expectedVersion, Map<String, Object> values) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Agent> update = cb.createCriteriaUpdate(Agent.class);
+        Root<Agent> root = update.from(Agent.class);
+        setValues(cb, update, root, values);
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+        Predicate target = cb.and(cb.equal(root.get("userId"), userId), cb.isNull(root.get("deletedAt")));
+        if (expectedVersion != null) {
+            update.where(target, cb.equal(version, expectedVersion));
+        } else {
+            update.where(target);
+        }
+        return entityManager.createQuery(update).executeUpdate();
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<AgentDeletion> softDelete(String userId, Long expectedVersion, LocalDateTime deletedAt) {
+        // Le SELECT final lit l'instantané de l'instruction : valeurs comptées d'avant la suppression.
+        // target verrouille l'agent : la condition de version porte sur sa dernière version validée
+        String sql = """
+                WITH target AS (
+                    SELECT a.user_id, a.active, a.gender, a.version FROM agents a
+                    WHERE a.user_id = :userId AND a.deleted_at IS NULL
+                    FOR UPDATE
+                ), deleted AS (
+                    UPDATE agents a SET active = false, deleted_at = :deletedAt, version = a.version + 1
+                    FROM target t
+                    WHERE a.user_id = t.user_id %s
+                    RETURNING a.user_id
+                ), info AS (
+                    UPDATE user_info u SET status = 'deleted', delete_date = :deletedAt
+                    FROM deleted d
+                    WHERE u.agent_user_id = d.user_id
+                    RETURNING u.id
+                )
+                SELECT EXISTS (SELECT 1 FROM deleted) AS deleted,
+                       (SELECT i.id FROM info i) AS user_info_id,
+                       t.active, t.gender,
+                       (SELECT u.status FROM user_info u WHERE u.agent_user_id = t.user_id) AS status,
+                       (SELECT ad.country FROM user_address ad WHERE ad.agent_user_id = t.user_id) AS country,
+                       (SELECT string_agg(r.name, chr(31)) FROM roles r WHERE r.agent_user_id = t.user_id) AS roles
+                FROM target t""".formatted(expectedVersion != null ? "AND t.version = :expectedVersion" : "");
+        Query query = entityManager.createNativeQuery(sql, Tuple.class)
+                .setParameter("userId", userId)
+                .setParameter("deletedAt", deletedAt);
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+        List<Tuple> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        Tuple row = rows.get(0);
+        boolean deleted = row.get("deleted", Boolean.class);
+        if (deleted) {
+            // Instruction vue par Hibernate comme une lecture : UserInfo et résultats de requêtes invalidés à la main
+            Number userInfoId = row.get("user_info_id", Number.class);
+            evictDeletedAfterCommit(userInfoId == null ? null : userInfoId.longValue());
+        }
+        String roles = row.get("roles", String.class);
+        AgentProfile before = new AgentProfile(
+                row.get("active", Boolean.class),
+                row.get("gender", String.class),
+                row.get("status", String.class),
+                row.get("country", String.class),
+                roles == null ? List.of() : List.of(roles.split(ROLE_SEPARATOR)));
+        return Optional.of(new AgentDeletion(deleted, before));
+    }
+    
+    private void evictDeletedAfterCommit(Long userInfoId) {
+        evictDeleted(userInfoId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictDeleted(userInfoId);
+                }
+            });
+        }
+    }
+    
+    // Les listes en cache de requêtes (agents actifs, pages) contiennent encore l'agent supprimé
+    private void evictDeleted(Long userInfoId) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        if (userInfoId != null) {
+            cache.evictEntityData(UserInfo.class, userInfoId);
+        }
+        cache.evictQueryRegions();
+    }
+    
+    @Override
+    public int updateChildColumns(Class<?> childType, String userId, Map<String, Object> values) {
+        return updateChild(childType, userId, values);
+    }
+    
+    @Override
+    public void addRoles(String userId, Collection<String> roleNames) {
+        Agent agent = entityManager.getReference(Agent.class, userId);
+        for (String roleName : roleNames) {
+            entityManager.persist(Role.builder()
+                    .name(roleName)
+                    .agent(agent)
+                    .build());
+        }
+        // Les rôles sont insérés sans passer par Agent.roles : Hibernate ne met pas à jour
+        // la collection en cache de second niveau, elle est invalidée maintenant et après la transaction
+        evictRolesAfterCommit(List.of(userId), List.of());
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> grantRole(String roleName, Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        // nextval par ligne : chaque valeur est la borne haute d'un bloc jamais distribué par
+        // l'optimiseur pooled d'Hibernate (allocationSize = 50), donc sans collision
+        List<String> changed = entityManager.createNativeQuery("""
+                        INSERT INTO roles (id, name, agent_user_id)
+                        SELECT nextval('roles_seq'), :name, a.user_id FROM agents a
+                        WHERE a.user_id IN (:userIds) AND a.deleted_at IS NULL
+                        ON CONFLICT (agent_user_id, name) DO NOTHING
+                        RETURNING agent_user_id""", String.class)
+                .setParameter("name", roleName)
+                .setParameter("userIds", userIds)
+                .getResultList();
+        afterRolesChanged(changed, List.of());
+        return changed;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> revokeRole(String roleName, Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        List<Tuple> deleted = entityManager.createNativeQuery("""
+                        DELETE FROM roles r USING agents a
+                        WHERE r.agent_user_id = a.user_id AND a.deleted_at IS NULL
+                          AND r.name = :name AND r.agent_user_id IN (:userIds)
+                        RETURNING r.id, r.agent_user_id""", Tuple.class)
+                .setParameter("name", roleName)
+                .setParameter("userIds", userIds)
+                .getResultList();
+        List<String> changed = deleted.stream().map(row -> row.get(1, String.class)).toList();
+        List<Long> roleIds = deleted.stream().map(row -> row.get(0, Number.class).longValue()).toList();
+        afterRolesChanged(changed, roleIds);
+        return changed;
+    }
+    
+    @Override
+    public Stream<AgentUniqueKeys> streamAllUniqueKeys() {
+        // SQL natif : la restriction deleted_at de l'entité Agent ne s'applique pas
+        Stream<Tuple> rows = entityManager.createNativeQuery("SELECT username, email FROM agents", Tuple.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 1000)
+                .getResultStream();
+        return rows.map(row -> new AgentUniqueKeys(row.get(0, String.class), row.get(1, String.class)));
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> findDeletedUserIds(LocalDateTime deletedBefore, int limit) {
+        return entityManager.createNativeQuery(
+                        "SELECT user_id FROM agents WHERE deleted_at < :deletedBefore ORDER BY deleted_at", String.class)
+                .setParameter("deletedBefore", deletedBefore)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    @Override
+    public int purgeAgents(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        // Relations d'abord (clé étrangère agent_user_id), une instruction par table
+        for (Class<?> childType : List.of(Role.class, UserInfo.class, UserAddress.class)) {
+            entityManager.createQuery("DELETE FROM " + childType.getSimpleName() + " c WHERE c.agent.userId IN :userIds")
+                    .setParameter("userIds", userIds)
+                    .executeUpdate();
+        }
+        // SQL natif pour les agents : la restriction deleted_at les masquerait en JPQL.
+        // Seule la table agents est déclarée, pour ne pas invalider tout le cache de second niveau
+        return entityManager.createNativeQuery("DELETE FROM agents WHERE user_id IN (:userIds)")
+                .setParameter("userIds", userIds)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Agent.class)
+                .executeUpdate();
+    }
+    
+    // Les instructions RETURNING sont vues par Hibernate comme des lectures : version des agents
+    // incrémentée (ETags, invalidation du cache de requêtes) et cache de second niveau invalidé à la main
+    private void afterRolesChanged(List<String> userIds, List<Long> deletedRoleIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        entityManager.createQuery("UPDATE Agent a SET a.version = a.version + 1 WHERE a.userId IN :userIds")
+                .setParameter("userIds", userIds)
+                .executeUpdate();
+        evictRolesAfterCommit(userIds, deletedRoleIds);
+    }
+    
+    private void evictRolesAfterCommit(List<String> userIds, List<Long> deletedRoleIds) {
+        evictRoles(userIds, deletedRoleIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictRoles(userIds, deletedRoleIds);
+                }
+            });
+        }
+    }
+    
+    private void evictRoles(List<String> userIds, List<Long> deletedRoleIds) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        for (String userId : userIds) {
+            cache.evictCollectionData(AGENT_ROLES_REGION, userId);
+        }
+        for (Long roleId : deletedRoleIds) {
+            cache.evictEntityData(Role.class, roleId);
+        }
+    }
+    
+    @Override
+    public void evictSecondLevelCache(Collection<String> userIds) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        if (userIds == null) {
+            cache.evictCollectionData(AGENT_ROLES_REGION);
+        } else {
+            for (String userId : userIds) {
+                cache.evictCollectionData(AGENT_ROLES_REGION, userId);
+            }
+        }
+        // Identifiants des entités liées inconnus ici : régions vidées entièrement
+        cache.evictEntityData(Role.class);
+        cache.evictEntityData(UserInfo.class);
+        cache.evictEntityData(UserAddress.class);
+        // Les horodatages des tables sont locaux : les résultats mis en cache ne voient pas les écritures distantes
+        cache.evictQueryRegions();
+    }
+    
+    private <T> int updateChild(Class<T> childType, String userId, Map<String, Object> values) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(childType);
+        Root<T> root = update.from(childType);
+        setValues(cb, update, root, values);
+        update.where(cb.equal(root.get("agent").get("userId"), userId));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+    
+    private static <T> void setValues(CriteriaBuilder cb, CriteriaUpdate<T> update, Root<T> root,
+                                      Map<String, Object> values) {
+        values.forEach((field, value) -> {
+            Path<Object> path = root.get(field);
+            if (value == null) {
+                update.set(path, cb.nullLiteral(path.getJavaType()));
+            } else {
+                update.set(path, value);
+            }
+        });
+    }
+}
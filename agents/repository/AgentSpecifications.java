@@ -0,0 +1,82 @@
+package com.example.agents.repository;
+
+import com.example.agents.dto.AgentSearchCriteria;
+import com.example.agents.model.Agent;
+import com.example.agents.model.Role;
+import com.example.agents.model.UserAddress;
+import com.example.agents.model.UserInfo;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Critères de recherche des agents, chacun appuyé sur un index (voir Agent, Role, UserInfo, UserAddress et db/migration)
+public final class AgentSpecifications {
+    
+    private AgentSpecifications() {
+    }
+    
+    public static Specification<Agent> matching(AgentSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            
+            if (criteria.getActive() != null) {
+                predicates.add(cb.equal(root.get("active"), criteria.getActive()));
+            }
+            
+            // Rôle : EXISTS pour ne pas dupliquer les agents
+            if (hasText(criteria.getRole())) {
+                Subquery<Long> roles = query.subquery(Long.class);
+                Root<Role> role = roles.from(Role.class);
+                roles.select(role.get("id"))
+                        .where(cb.equal(role.get("agent"), root), cb.equal(role.get("name"), criteria.getRole()));
+                predicates.add(cb.exists(roles));
+            }
+            
+            if (hasText(criteria.getStatus())) {
+                Join<Agent, UserInfo> info = root.join("userInfo");
+                predicates.add(cb.equal(info.get("status"), criteria.getStatus()));
+            }
+            
+            if (hasText(criteria.getCountry()) || hasText(criteria.getState())) {
+                Join<Agent, UserAddress> address = root.join("userAddress");
+                if (hasText(criteria.getCountry())) {
+                    predicates.add(cb.equal(address.get("country"), criteria.getCountry()));
+                }
+                if (hasText(criteria.getState())) {
+                    predicates.add(cb.equal(address.get("state"), criteria.getState()));
+                }
+            }
+            
+            // Préfixe : lower(col) LIKE 'abc%' utilise les index text_pattern_ops
+            if (hasText(criteria.getQ())) {
+                String prefix = escapeLike(criteria.getQ().toLowerCase(Locale.ROOT)) + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("username")), prefix, '\\'),
+                        cb.like(cb.lower(root.get("fullName")), prefix, '\\')));
+            }
+            
+            if (criteria.getCreatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), criteria.getCreatedFrom()));
+            }
+            if (criteria.getCreatedTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), criteria.getCreatedTo()));
+            }
+            
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+    
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
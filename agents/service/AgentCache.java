@@ -0,0 +1,92 @@
+package com.example.agents.service;
+
+import com.example.agents.cluster.ClusterInvalidationPublisher;
+import com.example.agents.config.AgentProperties;
+import com.example.agents.dto.AgentCacheStats;
+import com.example.agents.dto.AgentSnapshot;
+import com.example.agents.model.Agent;
+import com.example.agents.util.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class AgentCache {
+    
+    private final Cache<String, AgentSnapshot> cache;
+    private final SingleFlight<String> loads;
+    private final ClusterInvalidationPublisher clusterInvalidation;
+    
+    public AgentCache(AgentProperties agentProperties, ClusterInvalidationPublisher clusterInvalidation,
+                      MeterRegistry meterRegistry) {
+        this.clusterInvalidation = clusterInvalidation;
+        AgentProperties.Cache config = agentProperties.getCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "agents");
+        this.loads = new SingleFlight<>(agentProperties.getCoalescing().getMaxWait());
+        SingleFlightMetrics.monitor(meterRegistry, loads, "agent");
+    }
+    
+    // Lecture à travers le cache : le chargement n'a lieu qu'en cas d'absence, une seule fois pour tous
+    // les appels concurrents sur le même userId (agent absent et échec compris, qui ne sont pas mis en cache)
+    public Optional<Agent> get(String userId, Function<String, Optional<Agent>> loader) {
+        AgentSnapshot snapshot = cache.getIfPresent(userId);
+        if (snapshot == null) {
+            snapshot = loads.execute(userId, () -> cache.get(userId, id -> load(id, loader)));
+        }
+        return Optional.ofNullable(snapshot).map(AgentSnapshot::toAgent);
+    }
+    
+    private static AgentSnapshot load(String userId, Function<String, Optional<Agent>> loader) {
+        return loader.apply(userId)
+                .map(AgentSnapshot::from)
+                .orElse(null);
+    }
+    
+    // Invalide l'entrée maintenant puis à la fin de la transaction en cours,
+    // pour qu'une lecture concurrente ne remette pas l'ancienne version en cache.
+    // Les autres nœuds sont prévenus après le commit
+    public void evictAfterCommit(String userId) {
+        cache.invalidate(userId);
+        clusterInvalidation.publishAfterCommit(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+    
+    // Invalidations reçues des autres nœuds
+    public void invalidate(Collection<String> userIds) {
+        cache.invalidateAll(userIds);
+    }
+    
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+    
+    public AgentCacheStats stats() {
+        CacheStats stats = cache.stats();
+        return new AgentCacheStats(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.agents.service;
+
+import com.example.agents.config.AgentProperties;
+import com.example.agents.dto.BulkImportReport;
+import com.example.agents.dto.BulkImportResult;
+import com.example.agents.model.Agent;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Timed(value = "agents.service", histogram = true)
+public class AgentImportService {
+    
+    private final AgentService agentService;
+    private final AgentProperties agentProperties;
+    private final ObjectMapper objectMapper;
+    
+    // Importe un tableau JSON ou un flux NDJSON d'agents, lot par lot
+    public BulkImportReport importAgents(InputStream input) throws IOException {
+        int chunkSize = agentProperties.getBulkImport().getChunkSize();
+        List<BulkImportResult> results = new ArrayList<>();
+        List<Agent> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        
+        // Lecture en flux : un tableau racine est déroulé élément par élément
+        try (MappingIterator<Agent> agents = objectMapper.readerFor(Agent.class).readValues(input)) {
+            while (agents.hasNextValue()) {
+                chunk.add(agents.nextValue());
+                if (chunk.size() == chunkSize) {
+                    results.addAll(importChunk(chunk, index));
+                    index += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Entrée illisible : on arrête l'import et on le signale dans le rapport
+            log.error("Import interrompu à la ligne {}: {}", index + chunk.size(), e.getMessage());
+            results.add(BulkImportResult.rejected(index + chunk.size(), null, "Invalid input: " + e.getMessage()));
+        }
+        
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(chunk, index));
+        }
+        
+        BulkImportReport report = BulkImportReport.of(results);
+        log.info("Import terminé: {} créés, {} rejetés", report.created(), report.rejected());
+        return report;
+    }
+    
+    private List<BulkImportResult> importChunk(List<Agent> chunk, int offset) {
+        try {
+            return agentService.importAgents(chunk, offset);
+        } catch (DataIntegrityViolationException e) {
+            // Conflit concurrent détecté par les contraintes d'unicité : tout le lot est annulé
+            log.warn("Lot de {} agents rejeté (index {}): {}", chunk.size(), offset, e.getMostSpecificCause().getMessage());
+            List<BulkImportResult> rejected = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                rejected.add(BulkImportResult.rejected(offset + i, chunk.get(i).getUsername(),
+                        "Chunk rolled back: " + e.getMostSpecificCause().getMessage()));
+            }
+            return rejected;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.agents.service;
+
+import com.example.agents.config.AgentProperties;
+import com.example.agents.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Regroupe les chargements concurrents identiques des listes d'agents (même requête, mêmes paramètres).
+// Le chargement s'exécute dans sa propre transaction : les appels en attente ne tiennent pas de connexion.
+@Component
+public class AgentListLoader {
+    
+    private record Query(String name, Object argument) {
+    }
+    
+    private final SingleFlight<Query> loads;
+    
+    public AgentListLoader(AgentProperties agentProperties, MeterRegistry meterRegistry) {
+        this.loads = new SingleFlight<>(agentProperties.getCoalescing().getMaxWait());
+        SingleFlightMetrics.monitor(meterRegistry, loads, "list");
+    }
+    
+    // Le résultat est partagé entre les appels : il ne doit pas être modifié
+    public <T> T load(String name, Object argument, Supplier<T> loader) {
+        return loads.execute(new Query(name, argument), loader);
+    }
+}
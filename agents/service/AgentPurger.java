@@ -0,0 +1,69 @@
+package com.example.agents.service;
+
+import com.example.agents.config.AgentProperties;
+import com.example.agents.event.AgentEventPublisher;
+import com.example.agents.event.AgentEventType;
+import com.example.agents.repository.AgentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Suppression définitive, en arrière-plan, des agents supprimés logiquement depuis plus de agents.purge.retention
+@Component
+@Slf4j
+public class AgentPurger {
+    
+    private final AgentRepository agentRepository;
+    private final AgentEventPublisher eventPublisher;
+    private final AgentProperties.Purge config;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter purged;
+    
+    public AgentPurger(AgentRepository agentRepository, AgentEventPublisher eventPublisher,
+                       AgentProperties agentProperties, PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.agentRepository = agentRepository;
+        this.eventPublisher = eventPublisher;
+        this.config = agentProperties.getPurge();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purged = meterRegistry.counter("agents.purged");
+    }
+    
+    @Scheduled(fixedDelayString = "#{@agentProperties.purge.interval.toMillis()}",
+               initialDelayString = "#{@agentProperties.purge.interval.toMillis()}")
+    public void purge() {
+        LocalDateTime deletedBefore = LocalDateTime.now().minus(config.getRetention());
+        int total = 0;
+        int count;
+        // Un lot par transaction : verrous courts, pas de cascade ligne à ligne
+        do {
+            count = transactionTemplate.execute(status -> purgeBatch(deletedBefore));
+            total += count;
+        } while (count == config.getBatchSize());
+        
+        if (total > 0) {
+            log.info("Purge des agents supprimés avant {}: {} agents", deletedBefore, total);
+        }
+    }
+    
+    private int purgeBatch(LocalDateTime deletedBefore) {
+        List<String> userIds = agentRepository.findDeletedUserIds(deletedBefore, config.getBatchSize());
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        agentRepository.purgeAgents(userIds);
+        for (String userId : userIds) {
+            eventPublisher.publish(AgentEventType.PURGED, userId, Map.of());
+        }
+        purged.increment(userIds.size());
+        return userIds.size();
+    }
+}
@@ -1,30 +1,88 @@
 package com.example.agents.service;
 
+import com.example.agents.cluster.ClusterInvalidationPublisher;
+import com.example.agents.dto.AgentCacheStats;
+import com.example.agents.dto.AgentDeletion;
+import com.example.agents.dto.AgentProfile;
+import com.example.agents.dto.AgentSearchCriteria;
+import com.example.agents.dto.AgentStats;
+import com.example.agents.dto.AgentSummary;
+import com.example.agents.dto.AgentVersion;
+import com.example.agents.dto.BulkImportResult;
+import com.example.agents.event.AgentEventPublisher;
+import com.example.agents.event.AgentEventType;
 import com.example.agents.model.Agent;
 import com.example.agents.model.Role;
 import com.example.agents.model.UserInfo;
 import com.example.agents.model.UserAddress;
 import com.example.agents.repository.AgentRepository;
+import com.example.agents.repository.AgentSpecifications;
 import com.example.agents.util.UserIdGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
+@Timed(value = "agents.service", histogram = true)
 public class AgentService {
     
+    // Champs modifiables par PATCH (les autres sont en lecture seule)
+    private static final Set<String> PATCHABLE_AGENT_FIELDS = Set.of(
+            "username", "fullName", "gender", "email", "emailPec", "dateOfBirth", "active");
+    private static final Set<String> PATCHABLE_RELATIONS = Set.of("roles", "userInfo", "userAddress");
+    private static final Set<String> PATCHABLE_USER_INFO_FIELDS = Set.of(
+            "status", "deleteDate", "adminUser", "emailPecVerified", "temporalPassword");
+    private static final Set<String> PATCHABLE_USER_ADDRESS_FIELDS = Set.of(
+            "country", "state", "addressLine", "zipCode");
+    private static final Set<String> NON_NULLABLE_FIELDS = Set.of(
+            "active", "status", "adminUser", "emailPecVerified", "temporalPassword");
+    
     private final AgentRepository agentRepository;
     private final UserIdGenerator userIdGenerator;
+    private final AgentCache agentCache;
+    private final AgentUniquenessIndex uniquenessIndex;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final AgentEventPublisher eventPublisher;
+    private final AgentStatistics statistics;
+    private final ClusterInvalidationPublisher clusterInvalidation;
+    private final AgentListLoader listLoader;
     
     // Récupère tous les agents
     @Transactional(readOnly = true)
@@ -33,11 +91,85 @@ public class AgentService {
         return agentRepository.findAllWithRelations();
     }
     
-    // Récupère un agent 
+    // Récupère une page d'agents après le curseur (userId exclu)
+    @Transactional(readOnly = true)
+    public List<Agent> getAgentsPage(String after, int limit) {
+        log.info("Récupération de {} agents après le curseur: {}", limit, after);
+        List<String> userIds = agentRepository.findUserIdsAfter(after == null ? "" : after, Limit.of(limit));
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return agentRepository.findAllWithRelationsByUserIdIn(userIds);
+    }
+    
+    // Versions d'une page (ETag) puis chargement des agents correspondants.
+    // Lectures des listes regroupées entre appels concurrents identiques (une requête par rafale) :
+    // pas de transaction ici, chaque requête du repository ouvre la sienne
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<AgentVersion> getAgentVersionsPage(String after, int limit) {
+        String cursor = after == null ? "" : after;
+        return listLoader.load("versionsAfter", List.of(cursor, limit),
+                () -> agentRepository.findVersionsAfter(cursor, Limit.of(limit)));
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Agent> getAgentsByIds(List<String> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return listLoader.load("agentsByIds", List.copyOf(userIds),
+                () -> agentRepository.findAllWithRelationsByUserIdIn(userIds));
+    }
+    
+    // Recherche filtrée côté serveur, paginée par curseur
+    @Transactional(readOnly = true)
+    public List<Agent> searchAgents(AgentSearchCriteria criteria, String after, int limit) {
+        log.info("Recherche d'agents: {}", criteria);
+        List<String> userIds = agentRepository.searchUserIds(AgentSpecifications.matching(criteria), after, limit);
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return agentRepository.findAllWithRelationsByUserIdIn(userIds);
+    }
+    
+    // Page de vues résumées (aucune entité hydratée)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<AgentSummary> getAgentSummariesPage(String after, int limit) {
+        log.info("Récupération de {} résumés d'agents après le curseur: {}", limit, after);
+        String cursor = after == null ? "" : after;
+        return listLoader.load("summariesAfter", List.of(cursor, limit),
+                () -> agentRepository.findSummariesAfter(cursor, Limit.of(limit)));
+    }
+    
+    // Parcourt tous les agents un par un, sans charger la table en mémoire
     @Transactional(readOnly = true)
+    public void forEachAgent(Consumer<Agent> action) {
+        log.info("Parcours en flux de tous les agents");
+        try (Stream<Agent> agents = agentRepository.streamAllWithRelations()) {
+            agents.forEach(agent -> {
+                action.accept(agent);
+                // Libère le contexte de persistance au fil de l'eau
+                entityManager.detach(agent);
+            });
+        }
+    }
+    
+    // Récupère un agent (cache en lecture, pas de transaction ouverte en cas de hit)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Agent> getAgentById(String userId) {
         log.info("Récupération de l'agent avec l'ID: {}", userId);
-        return agentRepository.findByUserIdWithRelations(userId);
+        return agentCache.get(userId, agentRepository::findByUserIdWithRelations);
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public AgentCacheStats getCacheStats() {
+        return agentCache.stats();
+    }
+    
+    // Statistiques agrégées, servies depuis la mémoire (aucune requête)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public AgentStats getStatistics() {
+        return statistics.snapshot();
     }
     
     // Crée un nouvel agent
@@ -45,21 +177,29 @@ public class AgentService {
         log.info("Création d'un nouvel agent: {}", agent.getUsername());
         
         // Vérifier l'unicité du username et email
-        if (agentRepository.existsByUsername(agent.getUsername())) {
+        if (uniquenessIndex.usernameExists(agent.getUsername())) {
             throw new RuntimeException("Username already exists: " + agent.getUsername());
         }
         
-        if (agentRepository.existsByEmail(agent.getEmail())) {
+        if (uniquenessIndex.emailExists(agent.getEmail())) {
             throw new RuntimeException("Email already exists: " + agent.getEmail());
         }
         
-        // Générer un userId
-        String userId;
-        do {
-            userId = userIdGenerator.generateUserId();
-        } while (agentRepository.existsById(userId));
+        // Générer un userId (unique par construction)
+        prepareNewAgent(agent, userIdGenerator.generateUserId());
+        uniquenessIndex.register(agent.getUsername(), agent.getEmail());
         
+        Agent savedAgent = agentRepository.save(agent);
+        agentCache.evictAfterCommit(savedAgent.getUserId());
+        publishCreated(savedAgent);
+        log.info("Agent créé avec succès avec l'ID: {}", savedAgent.getUserId());
+        return savedAgent;
+    }
+    
+    // Initialise un nouvel agent : ID, rôle par défaut, UserInfo et UserAddress
+    private void prepareNewAgent(Agent agent, String userId) {
         agent.setUserId(userId);
+        agent.setVersion(null);
         agent.setCreatedAt(LocalDateTime.now());
         agent.setActive(true);
         
@@ -95,29 +235,124 @@ public class AgentService {
                     .build();
             agent.setUserAddress(userAddress);
         }
+    }
+    
+    // Importe un lot d'agents dans une seule transaction (index de départ = offset)
+    public List<BulkImportResult> importAgents(List<Agent> chunk, int offset) {
+        List<BulkImportResult> results = new ArrayList<>(chunk.size());
+        List<Agent> accepted = new ArrayList<>(chunk.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(chunk.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
         
-        Agent savedAgent = agentRepository.save(agent);
-        log.info("Agent créé avec succès avec l'ID: {}", savedAgent.getUserId());
-        return savedAgent;
+        // Validation et doublons internes au lot
+        for (int i = 0; i < chunk.size(); i++) {
+            Agent agent = chunk.get(i);
+            int index = offset + i;
+            Set<ConstraintViolation<Agent>> violations = validator.validate(agent);
+            if (!violations.isEmpty()) {
+                results.add(BulkImportResult.rejected(index, agent.getUsername(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .collect(Collectors.joining(", "))));
+            } else if (!usernames.add(agent.getUsername())) {
+                results.add(BulkImportResult.rejected(index, agent.getUsername(),
+                        "Duplicate username in import: " + agent.getUsername()));
+            } else if (!emails.add(agent.getEmail())) {
+                results.add(BulkImportResult.rejected(index, agent.getUsername(),
+                        "Duplicate email in import: " + agent.getEmail()));
+            } else {
+                accepted.add(agent);
+                acceptedIndexes.add(index);
+            }
+        }
+        
+        // Unicité en base : une requête IN par colonne pour tout le lot
+        Set<String> existingUsernames = uniquenessIndex.existingUsernames(usernames);
+        Set<String> existingEmails = uniquenessIndex.existingEmails(emails);
+        
+        List<Agent> toSave = new ArrayList<>(accepted.size());
+        List<Integer> toSaveIndexes = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            Agent agent = accepted.get(i);
+            int index = acceptedIndexes.get(i);
+            if (existingUsernames.contains(agent.getUsername())) {
+                results.add(BulkImportResult.rejected(index, agent.getUsername(),
+                        "Username already exists: " + agent.getUsername()));
+            } else if (existingEmails.contains(agent.getEmail())) {
+                results.add(BulkImportResult.rejected(index, agent.getUsername(),
+                        "Email already exists: " + agent.getEmail()));
+            } else {
+                toSave.add(agent);
+                toSaveIndexes.add(index);
+            }
+        }
+        
+        for (Agent agent : toSave) {
+            prepareNewAgent(agent, userIdGenerator.generateUserId());
+            uniquenessIndex.register(agent.getUsername(), agent.getEmail());
+        }
+        
+        // Inserts regroupés par lots JDBC (hibernate.jdbc.batch_size / order_inserts)
+        agentRepository.saveAll(toSave);
+        agentRepository.flush();
+        entityManager.clear();
+        
+        for (int i = 0; i < toSave.size(); i++) {
+            Agent agent = toSave.get(i);
+            publishCreated(agent);
+            results.add(BulkImportResult.created(toSaveIndexes.get(i), agent.getUsername(), agent.getUserId()));
+        }
+        results.sort(Comparator.comparingInt(BulkImportResult::index));
+        log.info("Import d'un lot de {} agents: {} créés", chunk.size(), toSave.size());
+        return results;
+    }
+    
+    private void publishCreated(Agent agent) {
+        clusterInvalidation.publishAfterCommit(agent.getUserId());
+        statistics.recordAfterCommit(null, AgentProfile.from(agent));
+        eventPublisher.publish(AgentEventType.CREATED, agent.getUserId(), Map.of(
+                "username", agent.getUsername(),
+                "email", agent.getEmail()));
+    }
+    
+    // Rôles retirés / ajoutés, publiés uniquement s'il y a une différence
+    private void publishRolesChanged(String userId, List<String> removedRoles, List<String> addedRoles) {
+        if (!removedRoles.isEmpty() || !addedRoles.isEmpty()) {
+            eventPublisher.publish(AgentEventType.ROLES_CHANGED, userId, Map.of(
+                    "removed", removedRoles,
+                    "added", addedRoles));
+        }
     }
     
     // Met a jour un Agent
     public Agent updateAgent(String userId, Agent agentDetails) {
+        return updateAgent(userId, agentDetails, null);
+    }
+    
+    // Met a jour un Agent si sa version correspond (If-Match), sans verrou de ligne :
+    // la version est aussi vérifiée par Hibernate au flush
+    public Agent updateAgent(String userId, Agent agentDetails, Long expectedVersion) {
         log.info("Mise à jour de l'agent avec l'ID: {}", userId);
         
         Agent existingAgent = agentRepository.findByUserIdWithRelations(userId)
                 .orElseThrow(() -> new RuntimeException("Agent not found with ID: " + userId));
         
+        if (expectedVersion != null && !expectedVersion.equals(existingAgent.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Agent.class, userId);
+        }
+        AgentProfile before = AgentProfile.from(existingAgent);
+        
         // Vérifier l'unicité du username et email (sauf pour l'agent actuel)
         if (!existingAgent.getUsername().equals(agentDetails.getUsername()) 
-            && agentRepository.existsByUsername(agentDetails.getUsername())) {
+            && uniquenessIndex.usernameExists(agentDetails.getUsername())) {
             throw new RuntimeException("Username already exists: " + agentDetails.getUsername());
         }
         
         if (!existingAgent.getEmail().equals(agentDetails.getEmail()) 
-            && agentRepository.existsByEmail(agentDetails.getEmail())) {
+            && uniquenessIndex.emailExists(agentDetails.getEmail())) {
             throw new RuntimeException("Email already exists: " + agentDetails.getEmail());
         }
+        uniquenessIndex.register(agentDetails.getUsername(), agentDetails.getEmail());
         
         // Mise à jour des champs de base
         existingAgent.setUsername(agentDetails.getUsername());
@@ -129,29 +364,36 @@ public class AgentService {
         existingAgent.setActive(agentDetails.getActive());
         existingAgent.setLastLogin(LocalDateTime.now());
         
-        // Mise à jour des rôles 
+        // Mise à jour des rôles : seuls les rôles retirés/ajoutés sont écrits
         if (agentDetails.getRoles() != null) {
             log.info("Mise à jour des rôles pour l'agent: {}", userId);
             
-            if (existingAgent.getRoles() != null && !existingAgent.getRoles().isEmpty()) {
-                log.info("Suppression de {} anciens rôles", existingAgent.getRoles().size());
-                existingAgent.getRoles().clear(); 
+            Set<String> requestedRoles = agentDetails.getRoles().stream()
+                    .map(Role::getName)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            if (existingAgent.getRoles() == null) {
+                existingAgent.setRoles(new ArrayList<>());
             }
             
-            List<Role> newRoles = agentDetails.getRoles().stream()
-                    .map(roleDetail -> {
-                        Role newRole = new Role();
-                        newRole.setName(roleDetail.getName());
-                        newRole.setAgent(existingAgent);
-                        return newRole;
-                    })
-                    .collect(Collectors.toList());
+            // Les rôles conservés sont retirés de requestedRoles : il n'y reste que les rôles à ajouter
+            List<String> removedRoles = new ArrayList<>();
+            existingAgent.getRoles().removeIf(role -> {
+                boolean removed = !requestedRoles.remove(role.getName());
+                if (removed) {
+                    removedRoles.add(role.getName());
+                }
+                return removed;
+            });
             
-            existingAgent.getRoles().addAll(newRoles);
+            List<String> addedRoles = new ArrayList<>(requestedRoles);
+            for (String roleName : addedRoles) {
+                existingAgent.getRoles().add(Role.builder()
+                        .name(roleName)
+                        .agent(existingAgent)
+                        .build());
+            }
             
-            log.info("{} nouveaux rôles ajoutés: {}", newRoles.size(), newRoles.stream()
-                    .map(Role::getName)
-                    .collect(Collectors.joining(", ")));
+            publishRolesChanged(userId, removedRoles, addedRoles);
         }
         
         // Mise à jour UserInfo
@@ -199,26 +441,225 @@ public class AgentService {
         }
         
         Agent updatedAgent = agentRepository.save(existingAgent);
+        agentCache.evictAfterCommit(userId);
+        statistics.recordAfterCommit(before, AgentProfile.from(updatedAgent));
+        eventPublisher.publish(AgentEventType.UPDATED, userId, Map.of(
+                "username", updatedAgent.getUsername(),
+                "email", updatedAgent.getEmail()));
         log.info("Agent mis à jour avec succès: {}", updatedAgent.getUserId());
         return updatedAgent;
     }
     
+    // Applique un JSON Merge Patch (RFC 7386) : seules les colonnes et rôles modifiés sont écrits, sans charger
+    // l'agrégat ni toucher lastLogin ; retourne la nouvelle version de l'agent (ETag de la réponse 204)
+    public long patchAgent(String userId, JsonNode patch) {
+        return patchAgent(userId, patch, null);
+    }
+    
+    public long patchAgent(String userId, JsonNode patch, Long expectedVersion) {
+        log.info("Modification partielle de l'agent avec l'ID: {}", userId);
+        
+        if (patch == null || !patch.isObject()) {
+            throw new RuntimeException("Merge patch must be a JSON object");
+        }
+        List<String> patchedFields = new ArrayList<>();
+        for (Iterator<String> it = patch.fieldNames(); it.hasNext(); ) {
+            String field = it.next();
+            if (!PATCHABLE_AGENT_FIELDS.contains(field) && !PATCHABLE_RELATIONS.contains(field)) {
+                throw new RuntimeException("Field cannot be patched: " + field);
+            }
+            patchedFields.add(field);
+        }
+        
+        // Valeurs comptées par les statistiques (rôles compris), lues seulement si le patch peut les modifier
+        AgentProfile before = patchesStatistics(patch) ? statistics.loadProfile(userId) : null;
+        
+        // Colonnes de l'agent
+        Map<String, Object> agentValues = readPatch(patch, PATCHABLE_AGENT_FIELDS, Agent.class);
+        if (agentValues.containsKey("username")) {
+            String username = (String) agentValues.get("username");
+            if (uniquenessIndex.usernameExists(username)
+                    && !userId.equals(agentRepository.findUserIdByUsername(username).orElse(userId))) {
+                throw new RuntimeException("Username already exists: " + username);
+            }
+        }
+        if (agentValues.containsKey("email")) {
+            String email = (String) agentValues.get("email");
+            if (uniquenessIndex.emailExists(email)
+                    && !userId.equals(agentRepository.findUserIdByEmail(email).orElse(userId))) {
+                throw new RuntimeException("Email already exists: " + email);
+            }
+        }
+        
+        // Toujours exécuté : incrémente la version de l'agrégat et applique la condition If-Match.
+        // Aucune ligne : agent inexistant (ou supprimé), ou version obsolète si If-Match est fourni
+        if (agentRepository.updateAgentColumns(userId, expectedVersion, agentValues) == 0) {
+            if (expectedVersion == null || agentRepository.findVersion(userId).isEmpty()) {
+                throw new RuntimeException("Agent not found with ID: " + userId);
+            }
+            throw new ObjectOptimisticLockingFailureException(Agent.class, userId);
+        }
+        uniquenessIndex.register((String) agentValues.get("username"), (String) agentValues.get("email"));
+        
+        // UserInfo / UserAddress : UPDATE ciblé, création seulement si la ligne n'existe pas
+        Map<String, Object> userInfoValues = patchChild(patch, "userInfo", PATCHABLE_USER_INFO_FIELDS, UserInfo.class,
+                userId, () -> UserInfo.builder()
+                        .agent(entityManager.getReference(Agent.class, userId))
+                        .build());
+        Map<String, Object> userAddressValues = patchChild(patch, "userAddress", PATCHABLE_USER_ADDRESS_FIELDS,
+                UserAddress.class, userId, () -> UserAddress.builder()
+                        .agent(entityManager.getReference(Agent.class, userId))
+                        .build());
+        
+        // Rôles : différence entre l'existant (lu avec les statistiques) et la liste demandée (null = aucun rôle)
+        Collection<String> roles = before != null ? before.roles() : List.of();
+        if (patch.has("roles")) {
+            Set<String> requestedRoles = new LinkedHashSet<>();
+            for (JsonNode role : patch.get("roles")) {
+                requestedRoles.add(role.isTextual() ? role.asText() : role.path("name").asText());
+            }
+            roles = List.copyOf(requestedRoles);
+            List<String> removedRoles = new ArrayList<>();
+            for (String role : before.roles()) {
+                if (!requestedRoles.remove(role)) {
+                    removedRoles.add(role);
+                }
+            }
+            // Restent dans requestedRoles les rôles à ajouter
+            List<String> addedRoles = new ArrayList<>(requestedRoles);
+            if (!removedRoles.isEmpty()) {
+                agentRepository.deleteRoles(userId, removedRoles);
+            }
+            if (!addedRoles.isEmpty()) {
+                agentRepository.addRoles(userId, addedRoles);
+            }
+            publishRolesChanged(userId, removedRoles, addedRoles);
+        }
+        
+        // Valeurs après modification déduites du patch, sans relire l'agent
+        if (before != null) {
+            statistics.recordAfterCommit(before, new AgentProfile(
+                    (Boolean) agentValues.getOrDefault("active", before.active()),
+                    (String) agentValues.getOrDefault("gender", before.gender()),
+                    (String) userInfoValues.getOrDefault("status", before.status()),
+                    (String) userAddressValues.getOrDefault("country", before.country()),
+                    roles));
+        }
+        
+        agentCache.evictAfterCommit(userId);
+        eventPublisher.publish(AgentEventType.PATCHED, userId, Map.of("fields", patchedFields));
+        log.info("Agent modifié avec succès: {}", userId);
+        // Version incrémentée d'une unité par l'UPDATE ci-dessus ; relue (ligne verrouillée par cet UPDATE)
+        // seulement sans If-Match
+        return expectedVersion != null
+                ? expectedVersion + 1
+                : agentRepository.findVersion(userId).orElseThrow();
+    }
+    
+    private static boolean patchesStatistics(JsonNode patch) {
+        return patch.has("active") || patch.has("gender") || patch.has("roles")
+                || patch.path("userInfo").has("status") || patch.path("userAddress").has("country");
+    }
+    
+    // Retourne les colonnes écrites (vide si la relation n'est pas dans le patch)
+    private <T> Map<String, Object> patchChild(JsonNode patch, String relation, Set<String> allowedFields,
+                                               Class<T> type, String userId, Supplier<T> factory) {
+        if (!patch.has(relation)) {
+            return Map.of();
+        }
+        JsonNode childPatch = patch.get(relation);
+        if (!childPatch.isObject()) {
+            throw new RuntimeException("Field cannot be removed: " + relation);
+        }
+        Map<String, Object> values = readPatch(childPatch, allowedFields, type);
+        if (values.isEmpty()) {
+            return values;
+        }
+        if (agentRepository.updateChildColumns(type, userId, values) == 0) {
+            T child = factory.get();
+            BeanWrapper wrapper = new BeanWrapperImpl(child);
+            values.forEach(wrapper::setPropertyValue);
+            entityManager.persist(child);
+        }
+        return values;
+    }
+    
+    // Convertit les champs autorisés du patch (annotations Jackson comprises) puis les valide un par un
+    private <T> Map<String, Object> readPatch(JsonNode patch, Set<String> allowedFields, Class<T> type) {
+        ObjectNode fields = objectMapper.createObjectNode();
+        patch.fields().forEachRemaining(entry -> {
+            if (allowedFields.contains(entry.getKey())) {
+                fields.set(entry.getKey(), entry.getValue());
+            } else if (type != Agent.class) {
+                throw new RuntimeException("Field cannot be patched: " + entry.getKey());
+            }
+        });
+        if (fields.isEmpty()) {
+            return Map.of();
+        }
+        
+        T target;
+        try {
+            target = objectMapper.treeToValue(fields, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid merge patch: " + e.getOriginalMessage());
+        }
+        BeanWrapper wrapper = new BeanWrapperImpl(target);
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Iterator<String> it = fields.fieldNames(); it.hasNext(); ) {
+            String field = it.next();
+            Object value = wrapper.getPropertyValue(field);
+            if (value == null && NON_NULLABLE_FIELDS.contains(field)) {
+                throw new RuntimeException("Field cannot be null: " + field);
+            }
+            Set<ConstraintViolation<T>> violations = validator.validateValue(type, field, value);
+            if (!violations.isEmpty()) {
+                throw new RuntimeException(violations.iterator().next().getMessage());
+            }
+            values.put(field, value);
+        }
+        return values;
+    }
+    
     // Supprime un agent 
     public boolean deleteAgent(String userId) {
+        return deleteAgent(userId, null);
+    }
+    
+    // Supprime logiquement un agent si sa version correspond (If-Match) : une seule instruction marque
+    // l'agent et son UserInfo et retourne les valeurs comptées par les statistiques, sans charger l'agrégat ;
+    // la suppression définitive est faite plus tard par AgentPurger
+    public boolean deleteAgent(String userId, Long expectedVersion) {
         log.info("Suppression de l'agent avec l'ID: {}", userId);
         
-        if (agentRepository.existsById(userId)) {
-            agentRepository.deleteById(userId);
-            log.info("Agent supprimé avec succès: {}", userId);
-            return true;
-        } else {
+        Optional<AgentDeletion> deletion = agentRepository.softDelete(userId, expectedVersion, LocalDateTime.now());
+        if (deletion.isEmpty()) {
             log.warn("Tentative de suppression d'un agent inexistant: {}", userId);
             return false;
         }
+        if (!deletion.get().deleted()) {
+            throw new ObjectOptimisticLockingFailureException(Agent.class, userId);
+        }
+        
+        agentCache.evictAfterCommit(userId);
+        statistics.recordAfterCommit(deletion.get().before(), null);
+        eventPublisher.publish(AgentEventType.DELETED, userId, Map.of());
+        log.info("Agent supprimé avec succès: {}", userId);
+        return true;
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Agent> getActiveAgents() {
-        return agentRepository.findByActive(true);
+        return listLoader.load("activeAgents", true, () -> agentRepository.findByActive(true));
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<AgentVersion> getActiveAgentVersions() {
+        return listLoader.load("activeVersions", true, () -> agentRepository.findVersionsByActive(true));
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<AgentSummary> getActiveAgentSummaries() {
+        return listLoader.load("activeSummaries", true, () -> agentRepository.findSummariesByActive(true));
     }
 }
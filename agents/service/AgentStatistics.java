@@ -0,0 +1,286 @@
+package com.example.agents.service;
+
+import com.example.agents.config.AgentProperties;
+import com.example.agents.dto.AgentCount;
+import com.example.agents.dto.AgentProfile;
+import com.example.agents.dto.AgentStats;
+import com.example.agents.repository.AgentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Comptages des agents par dimension, tenus en mémoire : initialisés par des GROUP BY,
+// puis mis à jour après chaque commit d'AgentService (compteurs LongAdder, verrou partagé entre écritures).
+// Les écritures des autres nœuds déclenchent un recalcul regroupé (requestReseed), le recalcul périodique
+// corrige le reste. Chaque variation porte l'identifiant de sa transaction Postgres : celles déjà visibles dans
+// l'instantané d'un recalcul sont ignorées, les comptages restent exacts pendant un recalcul
+@Component
+@Slf4j
+public class AgentStatistics {
+    
+    private static final String UNKNOWN = "unknown";
+    
+    private enum Dimension { ACTIVE, ROLE, STATUS, COUNTRY, GENDER }
+    
+    private final AgentRepository agentRepository;
+    private final AgentProperties agentProperties;
+    private volatile Counters counters = new Counters(null);
+    
+    // Variations validées pendant un recalcul : rejouées sur les nouveaux compteurs avant leur publication
+    // (sinon perdues avec les anciens compteurs), sauf celles que les requêtes de comptage ont déjà vues
+    private volatile Queue<Change> replay;
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ReentrantLock seedLock = new ReentrantLock();
+    
+    // Recalcul demandé par les invalidations reçues des autres nœuds, exécuté au plus une fois par remote-reseed-delay
+    private final AtomicBoolean reseedRequested = new AtomicBoolean();
+    
+    public AgentStatistics(AgentRepository agentRepository, AgentProperties agentProperties) {
+        this.agentRepository = agentRepository;
+        this.agentProperties = agentProperties;
+    }
+    
+    // Chargement au démarrage puis recalcul toutes les agents.stats.reseed-interval.
+    // Comptages dans un seul instantané (REPEATABLE READ), lu en premier ; les variations enregistrées depuis le
+    // début du recalcul et absentes de cet instantané sont rejouées sur ce résultat avant de le publier
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "#{@agentProperties.stats.reseedInterval.toMillis()}",
+               initialDelayString = "#{@agentProperties.stats.reseedInterval.toMillis()}")
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void seed() {
+        seedLock.lock();
+        try {
+            replay = new ConcurrentLinkedQueue<>();
+            Counters seeded = new Counters(agentProperties.getStats().isTransactionIds()
+                    ? TransactionSnapshot.parse(agentRepository.currentSnapshot())
+                    : null);
+            seeded.total.add(agentRepository.countAgents());
+            seeded.add(Dimension.ACTIVE, agentRepository.countByActive());
+            seeded.add(Dimension.ROLE, agentRepository.countByRole());
+            seeded.add(Dimension.STATUS, agentRepository.countByStatus());
+            seeded.add(Dimension.COUNTRY, agentRepository.countByCountry());
+            seeded.add(Dimension.GENDER, agentRepository.countByGender());
+            
+            int replayed = 0;
+            swapLock.writeLock().lock();
+            try {
+                for (Change change : replay) {
+                    if (!seeded.includes(change.transactionId())) {
+                        change.delta().accept(seeded);
+                        replayed++;
+                    }
+                }
+                counters = seeded;
+                replay = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            log.info("Statistiques des agents chargées: {} agents ({} variations rejouées)",
+                    seeded.total.sum(), replayed);
+        } finally {
+            // Échec des comptages : les variations sont déjà dans les compteurs publiés
+            replay = null;
+            seedLock.unlock();
+        }
+    }
+    
+    // Écritures d'un autre nœud : les notifications reçues d'ici le prochain passage donnent un seul recalcul
+    public void requestReseed() {
+        reseedRequested.set(true);
+    }
+    
+    @Scheduled(fixedDelayString = "#{@agentProperties.stats.remoteReseedDelay.toMillis()}")
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void reseedIfRequested() {
+        if (reseedRequested.getAndSet(false)) {
+            seed();
+        }
+    }
+    
+    // Lecture sans accès à la base : somme des compteurs de chaque valeur
+    public AgentStats snapshot() {
+        Counters current = counters;
+        return new AgentStats(
+                current.total.sum(),
+                current.read(Dimension.ACTIVE),
+                current.read(Dimension.ROLE),
+                current.read(Dimension.STATUS),
+                current.read(Dimension.COUNTRY),
+                current.read(Dimension.GENDER),
+                current.seededAt);
+    }
+    
+    // Valeurs actuelles d'un agent, lues avant sa modification (vide si absent ou supprimé)
+    public AgentProfile loadProfile(String userId) {
+        return agentRepository.findProfile(userId)
+                .map(profile -> profile.withRoles(agentRepository.findRoleNames(userId)))
+                .orElse(null);
+    }
+    
+    // Enregistre le passage de before à after (null = agent absent), appliqué après le commit
+    public void recordAfterCommit(AgentProfile before, AgentProfile after) {
+        runAfterCommit(current -> {
+            if (before != null) {
+                current.apply(before, -1);
+            }
+            if (after != null) {
+                current.apply(after, 1);
+            }
+        });
+    }
+    
+    // Attribution / retrait en masse d'un rôle : delta du nombre d'agents ayant ce rôle
+    public void recordRoleAfterCommit(String role, long delta) {
+        runAfterCommit(current -> current.counter(Dimension.ROLE, role).add(delta));
+    }
+    
+    // Verrou partagé entre écritures (compteurs LongAdder), exclusif seulement le temps de publier un recalcul.
+    // Une variation déjà comptée par le recalcul des compteurs courants n'est pas appliquée une seconde fois
+    private void record(Long transactionId, Consumer<Counters> delta) {
+        swapLock.readLock().lock();
+        try {
+            Counters current = counters;
+            if (!current.includes(transactionId)) {
+                delta.accept(current);
+            }
+            Queue<Change> pending = replay;
+            if (pending != null) {
+                pending.add(new Change(transactionId, delta));
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+    
+    private void runAfterCommit(Consumer<Counters> delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(null, delta);
+            return;
+        }
+        
+        // Un seul enregistrement par transaction, comme pour les événements
+        @SuppressWarnings("unchecked")
+        List<Consumer<Counters>> pending = (List<Consumer<Counters>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            // Identifiant lu une fois par transaction d'écriture, avant le commit
+            Long transactionId = agentProperties.getStats().isTransactionIds()
+                    && TransactionSynchronizationManager.isActualTransactionActive()
+                    ? agentRepository.currentTransactionId()
+                    : null;
+            List<Consumer<Counters>> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changes.forEach(change -> record(transactionId, change));
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AgentStatistics.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.add(delta);
+    }
+    
+    // Variation validée et transaction qui l'a produite (null si inconnue : toujours appliquée)
+    private record Change(Long transactionId, Consumer<Counters> delta) {
+    }
+    
+    // Instantané Postgres (pg_current_snapshot, « xmin:xmax:xip,... ») : transactions dont il voit le commit
+    private record TransactionSnapshot(long xmin, long xmax, Set<Long> inProgress) {
+        
+        private static TransactionSnapshot parse(String snapshot) {
+            String[] parts = snapshot.split(":", -1);
+            Set<Long> inProgress = parts[2].isEmpty()
+                    ? Set.of()
+                    : Arrays.stream(parts[2].split(",")).map(Long::valueOf).collect(Collectors.toSet());
+            return new TransactionSnapshot(Long.parseLong(parts[0]), Long.parseLong(parts[1]), inProgress);
+        }
+        
+        private boolean includes(long transactionId) {
+            return transactionId < xmin || (transactionId < xmax && !inProgress.contains(transactionId));
+        }
+    }
+    
+    private static final class Counters {
+        
+        private final LongAdder total = new LongAdder();
+        private final Map<Dimension, ConcurrentHashMap<String, LongAdder>> values = new EnumMap<>(Dimension.class);
+        private final LocalDateTime seededAt = LocalDateTime.now();
+        // Instantané des requêtes de comptage (null : inconnu, aucune variation n'y est déjà comptée)
+        private final TransactionSnapshot snapshot;
+        
+        private Counters(TransactionSnapshot snapshot) {
+            this.snapshot = snapshot;
+            for (Dimension dimension : Dimension.values()) {
+                values.put(dimension, new ConcurrentHashMap<>());
+            }
+        }
+        
+        private boolean includes(Long transactionId) {
+            return snapshot != null && transactionId != null && snapshot.includes(transactionId);
+        }
+        
+        private void add(Dimension dimension, List<AgentCount> counts) {
+            for (AgentCount count : counts) {
+                counter(dimension, count.value()).add(count.count());
+            }
+        }
+        
+        private void apply(AgentProfile profile, int delta) {
+            total.add(delta);
+            counter(Dimension.ACTIVE, profile.active() == null ? null : profile.active().toString()).add(delta);
+            counter(Dimension.STATUS, profile.status()).add(delta);
+            counter(Dimension.COUNTRY, profile.country()).add(delta);
+            counter(Dimension.GENDER, profile.gender()).add(delta);
+            // Un agent compte une fois par rôle
+            for (String role : new LinkedHashSet<>(profile.roles())) {
+                counter(Dimension.ROLE, role).add(delta);
+            }
+        }
+        
+        private LongAdder counter(Dimension dimension, String value) {
+            return values.get(dimension).computeIfAbsent(value == null ? UNKNOWN : value, key -> new LongAdder());
+        }
+        
+        // Valeurs triées, sans les compteurs retombés à zéro
+        private Map<String, Long> read(Dimension dimension) {
+            Map<String, Long> result = new TreeMap<>();
+            values.get(dimension).forEach((value, counter) -> {
+                long count = counter.sum();
+                if (count != 0) {
+                    result.put(value, count);
+                }
+            });
+            return result;
+        }
+    }
+}
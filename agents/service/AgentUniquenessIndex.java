@@ -0,0 +1,112 @@
+package com.example.agents.service;
+
+import com.example.agents.config.AgentProperties;
+import com.example.agents.dto.AgentUniqueKeys;
+import com.example.agents.repository.AgentRepository;
+import com.example.agents.util.ConcurrentBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Index mémoire des usernames/emails : un filtre de Bloom évite la requête quand la valeur est libre.
+// Les contraintes d'unicité de la base restent l'arbitre final.
+@Component
+@Slf4j
+public class AgentUniquenessIndex {
+    
+    private final AgentRepository agentRepository;
+    private final ConcurrentBloomFilter usernames;
+    private final ConcurrentBloomFilter emails;
+    
+    // Tant que l'index n'est pas chargé, toutes les vérifications passent par la base
+    private volatile boolean ready;
+    
+    // Vérifications résolues en mémoire / envoyées à la base
+    private final Counter skippedChecks;
+    private final Counter databaseChecks;
+    
+    public AgentUniquenessIndex(AgentRepository agentRepository, AgentProperties agentProperties,
+                                MeterRegistry meterRegistry) {
+        this.agentRepository = agentRepository;
+        this.skippedChecks = meterRegistry.counter("agents.uniqueness.checks", "result", "memory");
+        this.databaseChecks = meterRegistry.counter("agents.uniqueness.checks", "result", "database");
+        AgentProperties.Uniqueness config = agentProperties.getUniqueness();
+        this.usernames = new ConcurrentBloomFilter(config.getExpectedInsertions(), config.getFalsePositiveRate());
+        this.emails = new ConcurrentBloomFilter(config.getExpectedInsertions(), config.getFalsePositiveRate());
+    }
+    
+    // Chargement initial depuis la base au démarrage
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        long count = 0;
+        try (Stream<AgentUniqueKeys> keys = agentRepository.streamAllUniqueKeys()) {
+            for (AgentUniqueKeys key : (Iterable<AgentUniqueKeys>) keys::iterator) {
+                register(key.username(), key.email());
+                count++;
+            }
+        }
+        ready = true;
+        log.info("Index d'unicité chargé: {} agents", count);
+    }
+    
+    public boolean usernameExists(String username) {
+        if (ready && !usernames.mightContain(username)) {
+            skippedChecks.increment();
+            return false;
+        }
+        databaseChecks.increment();
+        return agentRepository.existsByUsername(username);
+    }
+    
+    public boolean emailExists(String email) {
+        if (ready && !emails.mightContain(email)) {
+            skippedChecks.increment();
+            return false;
+        }
+        databaseChecks.increment();
+        return agentRepository.existsByEmail(email);
+    }
+    
+    // Version ensembliste : seules les valeurs possiblement présentes sont vérifiées en base
+    public Set<String> existingUsernames(Collection<String> candidates) {
+        List<String> possible = ready
+                ? candidates.stream().filter(usernames::mightContain).toList()
+                : List.copyOf(candidates);
+        return possible.isEmpty() ? Set.of() : new HashSet<>(agentRepository.findExistingUsernames(possible));
+    }
+    
+    public Set<String> existingEmails(Collection<String> candidates) {
+        List<String> possible = ready
+                ? candidates.stream().filter(emails::mightContain).toList()
+                : List.copyOf(candidates);
+        return possible.isEmpty() ? Set.of() : new HashSet<>(agentRepository.findExistingEmails(possible));
+    }
+    
+    // Agents créés ou modifiés sur un autre nœud : leurs clés sont relues en base
+    public void registerUserIds(Collection<String> userIds) {
+        for (AgentUniqueKeys keys : agentRepository.findUniqueKeysByUserIdIn(userIds)) {
+            register(keys.username(), keys.email());
+        }
+    }
+    
+    // Appelé par les chemins d'écriture avant le commit (un rollback laisse un faux positif sans gravité)
+    public void register(String username, String email) {
+        if (username != null) {
+            usernames.put(username);
+        }
+        if (email != null) {
+            emails.put(email);
+        }
+    }
+}
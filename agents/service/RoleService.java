@@ -0,0 +1,93 @@
+package com.example.agents.service;
+
+import com.example.agents.config.AgentProperties;
+import com.example.agents.dto.AgentSearchCriteria;
+import com.example.agents.dto.RoleAssignmentRequest;
+import com.example.agents.dto.RoleAssignmentResult;
+import com.example.agents.event.AgentEventPublisher;
+import com.example.agents.event.AgentEventType;
+import com.example.agents.repository.AgentRepository;
+import com.example.agents.repository.AgentSpecifications;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+// Attribution et retrait d'un rôle à un ensemble d'agents : une instruction SQL par lot,
+// sans charger les agents ni leurs rôles
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+@Timed(value = "agents.service", histogram = true)
+public class RoleService {
+    
+    private final AgentRepository agentRepository;
+    private final AgentProperties agentProperties;
+    private final AgentCache agentCache;
+    private final AgentStatistics statistics;
+    private final AgentEventPublisher eventPublisher;
+    
+    public RoleAssignmentResult grantRole(String roleName, RoleAssignmentRequest request) {
+        log.info("Attribution du rôle {} en masse", roleName);
+        return assign(roleName, request, agentRepository::grantRole, true);
+    }
+    
+    public RoleAssignmentResult revokeRole(String roleName, RoleAssignmentRequest request) {
+        log.info("Retrait du rôle {} en masse", roleName);
+        return assign(roleName, request, agentRepository::revokeRole, false);
+    }
+    
+    private RoleAssignmentResult assign(String roleName, RoleAssignmentRequest request,
+                                        BiFunction<String, List<String>, List<String>> statement, boolean granted) {
+        if (roleName == null || roleName.isBlank()) {
+            throw new RuntimeException("Role name is required");
+        }
+        if ((request.getUserIds() == null) == (request.getFilter() == null)) {
+            throw new RuntimeException("Either userIds or filter is required");
+        }
+        
+        int batchSize = agentProperties.getRoles().getBatchSize();
+        int matched = 0;
+        List<String> changed = new ArrayList<>();
+        if (request.getUserIds() != null) {
+            List<String> userIds = List.copyOf(new LinkedHashSet<>(request.getUserIds()));
+            matched = userIds.size();
+            for (int from = 0; from < userIds.size(); from += batchSize) {
+                changed.addAll(statement.apply(roleName, userIds.subList(from, Math.min(from + batchSize, userIds.size()))));
+            }
+        } else {
+            // Filtre : identifiants parcourus par curseur, un lot par instruction
+            AgentSearchCriteria filter = request.getFilter();
+            String after = null;
+            List<String> userIds;
+            do {
+                userIds = agentRepository.searchUserIds(AgentSpecifications.matching(filter), after, batchSize);
+                if (!userIds.isEmpty()) {
+                    matched += userIds.size();
+                    changed.addAll(statement.apply(roleName, userIds));
+                    after = userIds.get(userIds.size() - 1);
+                }
+            } while (userIds.size() == batchSize);
+        }
+        
+        List<String> roleChange = List.of(roleName);
+        for (String userId : changed) {
+            agentCache.evictAfterCommit(userId);
+            eventPublisher.publish(AgentEventType.ROLES_CHANGED, userId, Map.of(
+                    "removed", granted ? List.of() : roleChange,
+                    "added", granted ? roleChange : List.of()));
+        }
+        statistics.recordRoleAfterCommit(roleName, granted ? changed.size() : -changed.size());
+        
+        log.info("Rôle {} {} à {} agents sur {}", roleName, granted ? "attribué" : "retiré", changed.size(), matched);
+        return new RoleAssignmentResult(roleName, matched, changed.size());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.agents.service;
+
+import com.example.agents.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// agents.coalescing.loads{target, result=executed|coalesced|timeout} et agents.coalescing.in.flight{target}
+final class SingleFlightMetrics {
+    
+    private SingleFlightMetrics() {
+    }
+    
+    static void monitor(MeterRegistry meterRegistry, SingleFlight<?> flight, String target) {
+        FunctionCounter.builder("agents.coalescing.loads", flight, SingleFlight::loadCount)
+                .description("Chargements exécutés")
+                .tags("target", target, "result", "executed")
+                .register(meterRegistry);
+        FunctionCounter.builder("agents.coalescing.loads", flight, SingleFlight::coalescedCount)
+                .description("Appels servis par le chargement d'un autre appel")
+                .tags("target", target, "result", "coalesced")
+                .register(meterRegistry);
+        FunctionCounter.builder("agents.coalescing.loads", flight, SingleFlight::timeoutCount)
+                .description("Attentes abandonnées (503)")
+                .tags("target", target, "result", "timeout")
+                .register(meterRegistry);
+        Gauge.builder("agents.coalescing.in.flight", flight, SingleFlight::inFlightCount)
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.agents.util;
+
+import com.example.agents.dto.AgentVersion;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+
+// ETags dérivés de la colonne version des agents
+public final class ETags {
+    
+    private ETags() {
+    }
+    
+    // ETag d'un agent : sa version. Faible, comme celui des listes : l'agent peut être servi en JSON, CBOR ou Smile
+    public static String forVersion(Long version) {
+        return "W/\"" + version + "\"";
+    }
+    
+    // ETag d'une liste : empreinte des couples (userId, version) et de la vue retournée, triés par userId
+    // (même ETag pour la liste des versions et pour les agents effectivement retournés, quel que soit leur ordre).
+    // Faible : la même liste peut être servie en JSON, CBOR ou Smile, compressée ou non
+    public static String forVersions(String view, List<AgentVersion> versions) {
+        List<AgentVersion> sorted = versions.stream().sorted(Comparator.comparing(AgentVersion::userId)).toList();
+        StringBuilder content = new StringBuilder(sorted.size() * 16);
+        for (AgentVersion version : sorted) {
+            content.append(version.userId()).append(':').append(version.version()).append(';');
+        }
+        return "W/\"" + view + "-" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+    
+    // If-None-Match : liste d'ETags séparés par des virgules, ou *
+    public static boolean matches(String header, String etag) {
+        if (header == null || etag == null) {
+            return false;
+        }
+        // Comparaison faible (RFC 9110) : le préfixe W/ est ignoré des deux côtés
+        String expected = stripWeak(etag);
+        for (String candidate : header.split(",")) {
+            String value = stripWeak(candidate.trim());
+            if (value.equals("*") || value.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+    
+    // If-Match : version attendue (préfixe W/ accepté), null si absent ou * (aucune condition)
+    public static Long parseVersion(String header) {
+        if (header == null || header.isBlank() || header.trim().equals("*")) {
+            return null;
+        }
+        String value = stripWeak(header.trim()).replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            // ETag inconnu : ne correspondra à aucune version
+            return -1L;
+        }
+    }
+}
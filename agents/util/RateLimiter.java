@@ -0,0 +1,33 @@
+package com.example.agents.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Seau à jetons sans verrou (algorithme GCRA) : l'état tient dans un seul AtomicLong, l'heure d'arrivée
+// théorique de la prochaine requête. Un débit de permitsPerSecond, avec des rafales de burst requêtes.
+public class RateLimiter {
+    
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+    
+    public RateLimiter(double permitsPerSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstNanos = emissionIntervalNanos * Math.max(1, burst);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+    
+    // 0 si la requête est admise, sinon le délai (ns) avant qu'elle le soit ; jamais bloquant
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, nowNanos) + emissionIntervalNanos;
+            long waitNanos = next - burstNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.agents.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Regroupement des chargements concurrents : pour une même clé, un seul appel exécute le chargement
+// (sur son propre thread) et les appels arrivés pendant ce temps reçoivent son résultat ou son exception.
+// Rien n'est conservé après la fin du chargement : un échec ne concerne que les appels déjà en attente.
+// Une attente dépassée échoue (WaitTimeoutException) : relancer le chargement depuis chaque appel en attente
+// multiplierait les requêtes précisément quand la base est lente.
+public class SingleFlight<K> {
+    
+    private final ConcurrentHashMap<K, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+    
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    
+    public SingleFlight(Duration maxWait) {
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+    
+    // Attente bornée : au-delà de maxWait, l'appel échoue sans exécuter le chargement lui-même
+    public <V> V execute(K key, Supplier<V> loader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        
+        loads.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <V> V await(CompletableFuture<Object> flight) {
+        try {
+            return (V) flight.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new WaitTimeoutException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared load", e);
+        }
+    }
+    
+    // Chargements exécutés / appels servis par le chargement d'un autre / attentes abandonnées
+    public long loadCount() {
+        return loads.sum();
+    }
+    
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+    
+    public long timeoutCount() {
+        return timeouts.sum();
+    }
+    
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+    
+    // Chargement partagé toujours en cours après maxWait (service momentanément indisponible)
+    public static class WaitTimeoutException extends RuntimeException {
+        
+        public WaitTimeoutException() {
+            super("Timed out waiting for a shared load");
+        }
+    }
+}
@@ -1,28 +1,176 @@
 package com.example.agents.util;
 
+import com.example.agents.config.AgentProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
-import java.security.SecureRandom;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Génère des userIds (2 lettres + 5 chiffres) sans collision ni aller-retour en base par ID.
+// Des blocs de numéros sont réservés via une séquence Postgres (plusieurs nœuds possibles),
+// puis chaque numéro est permuté (réseau de Feistel) pour que les IDs restent d'aspect aléatoire.
 @Component
+@Slf4j
 public class UserIdGenerator {
     
     private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
     private static final String NUMBERS = "123456789";
-    private static final SecureRandom random = new SecureRandom();
+    private static final int DIGIT_COUNT = 5;
+    private static final long DIGIT_SPACE = 59_049L; // 9^5
+    static final long ID_SPACE = (long) LETTERS.length() * LETTERS.length() * DIGIT_SPACE;
     
-    public String generateUserId() {
-        StringBuilder userId = new StringBuilder();
+    // Domaine du réseau de Feistel : 2^28 >= ID_SPACE, parcours cyclique pour rester dans l'espace
+    private static final int HALF_BITS = 14;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final int ROUNDS = 4;
+    
+    private static final String SEQUENCE = "agent_user_id_seq";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final long[] roundKeys = new long[ROUNDS];
+    private final ReentrantLock leaseLock = new ReentrantLock();
+    
+    private volatile Block block = Block.EMPTY;
+    private int blockSize;
+    
+    public UserIdGenerator(JdbcTemplate jdbcTemplate,
+                           NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                           AgentProperties agentProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
         
-        // 2 lettres aléatoires
-        for (int i = 0; i < 2; i++) {
-            userId.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        // Clés de tour dérivées de la clé partagée (identique sur tous les nœuds)
+        long seed = agentProperties.getUserId().getPermutationKey();
+        for (int i = 0; i < ROUNDS; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            roundKeys[i] = mix(seed);
+        }
+    }
+    
+    public String generateUserId() {
+        while (true) {
+            Block current = block;
+            String userId = current.next();
+            if (userId != null) {
+                return userId;
+            }
+            leaseBlock(current);
+        }
+    }
+    
+    // Réserve un nouveau bloc (un seul thread à la fois, les autres réessaient ensuite)
+    private void leaseBlock(Block exhausted) {
+        leaseLock.lock();
+        try {
+            if (block != exhausted) {
+                return;
+            }
+            if (blockSize == 0) {
+                blockSize = readBlockSize();
+            }
+            
+            Long start = jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE + "')", Long.class);
+            if (start == null || start >= ID_SPACE) {
+                throw new IllegalStateException("User ID space exhausted");
+            }
+            long end = Math.min(start + blockSize, ID_SPACE);
+            
+            List<String> candidates = new ArrayList<>((int) (end - start));
+            for (long value = start; value < end; value++) {
+                candidates.add(encode(permute(value)));
+            }
+            
+            // Une seule requête par bloc pour écarter les IDs aléatoires historiques
+            Set<String> taken = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                    "SELECT user_id FROM agents WHERE user_id IN (:userIds)",
+                    Map.of("userIds", candidates), String.class));
+            if (!taken.isEmpty()) {
+                candidates.removeIf(taken::contains);
+            }
+            
+            block = new Block(candidates.toArray(new String[0]));
+            log.debug("Bloc de userIds réservé: [{}, {})", start, end);
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+    
+    // La séquence est créée par la migration V1 ; la taille de bloc est son incrément
+    private int readBlockSize() {
+        List<Long> increments = jdbcTemplate.queryForList(
+                "SELECT increment FROM information_schema.sequences WHERE sequence_name = ?",
+                Long.class, SEQUENCE);
+        if (increments.isEmpty()) {
+            throw new IllegalStateException("Sequence " + SEQUENCE + " not found");
         }
+        return increments.get(0).intValue();
+    }
+    
+    // Permutation bijective de [0, ID_SPACE)
+    private long permute(long value) {
+        long permuted = value;
+        do {
+            permuted = feistel(permuted);
+        } while (permuted >= ID_SPACE);
+        return permuted;
+    }
+    
+    private long feistel(long value) {
+        long left = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (int round = 0; round < ROUNDS; round++) {
+            long next = left ^ (mix(right ^ roundKeys[round]) & HALF_MASK);
+            left = right;
+            right = next;
+        }
+        return (left << HALF_BITS) | right;
+    }
+    
+    private static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    // Format historique : 2 lettres puis 5 chiffres de 1 à 9
+    private static String encode(long value) {
+        char[] chars = new char[2 + DIGIT_COUNT];
+        int letters = (int) (value / DIGIT_SPACE);
+        long digits = value % DIGIT_SPACE;
+        chars[0] = LETTERS.charAt(letters / LETTERS.length());
+        chars[1] = LETTERS.charAt(letters % LETTERS.length());
+        for (int i = chars.length - 1; i >= 2; i--) {
+            chars[i] = NUMBERS.charAt((int) (digits % NUMBERS.length()));
+            digits /= NUMBERS.length();
+        }
+        return new String(chars);
+    }
+    
+    // Bloc d'IDs pré-calculés, distribués sans verrou
+    private static final class Block {
         
-        // 5 chiffres aléatoires
-        for (int i = 0; i < 5; i++) {
-            userId.append(NUMBERS.charAt(random.nextInt(NUMBERS.length())));
+        private static final Block EMPTY = new Block(new String[0]);
+        
+        private final String[] userIds;
+        private final AtomicInteger cursor = new AtomicInteger();
+        
+        private Block(String[] userIds) {
+            this.userIds = userIds;
         }
         
-        return userId.toString();
+        private String next() {
+            int index = cursor.getAndIncrement();
+            return index < userIds.length ? userIds[index] : null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+// Charge en lecture sur l'API agents : k6 run -e BASE_URL=http://localhost:8080 -e VUS=1000 loadtest/agents-read.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '1000');
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+// Récupère une page d'IDs existants une seule fois
+export function setup() {
+    const res = http.get(`${BASE_URL}/api/v1/agents?limit=200`);
+    return { userIds: res.json().map((agent) => agent.userId) };
+}
+
+export default function (data) {
+    const userId = data.userIds[Math.floor(Math.random() * data.userIds.length)];
+    const byId = http.get(`${BASE_URL}/api/v1/${userId}`, { tags: { endpoint: 'getAgentById' } });
+    check(byId, { 'agent 200': (r) => r.status === 200 });
+
+    const page = http.get(`${BASE_URL}/api/v1/agents?limit=20`, { tags: { endpoint: 'getAllAgents' } });
+    check(page, { 'page 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# Vérifie l'invalidation entre nœuds : deux instances sur la même base (8080 et 8081),
+# lecture sur B (mise en cache), modification sur A, relecture sur B.
+# Prérequis : Postgres local peuplé, jq et le jar construit (mvn -DskipTests package).
+set -euo pipefail
+
+JAR=${JAR:-target/agents-0.0.1-SNAPSHOT.jar}
+NODE_A=${NODE_A:-8080}
+NODE_B=${NODE_B:-8081}
+
+mkdir -p target
+java -jar "${JAR}" --server.port="${NODE_A}" --logging.level.root=WARN > target/cluster-a.log 2>&1 &
+PID_A=$!
+java -jar "${JAR}" --server.port="${NODE_B}" --logging.level.root=WARN > target/cluster-b.log 2>&1 &
+PID_B=$!
+trap "kill ${PID_A} ${PID_B} 2>/dev/null || true" EXIT
+for port in "${NODE_A}" "${NODE_B}"; do
+    until curl -sf "http://localhost:${port}/api/v1/agents?limit=1" > /dev/null; do sleep 1; done
+done
+
+USER_ID=$(curl -sf "http://localhost:${NODE_A}/api/v1/agents?limit=1" | jq -r '.[0].userId')
+BEFORE=$(curl -sf "http://localhost:${NODE_B}/api/v1/${USER_ID}" | jq -r '.fullName')
+NEW_NAME="Cluster $(date +%s)"
+
+curl -sf -X PATCH "http://localhost:${NODE_A}/api/v1/${USER_ID}" \
+    -H 'Content-Type: application/merge-patch+json' \
+    -d "{\"fullName\": \"${NEW_NAME}\"}" > /dev/null
+sleep "${WAIT:-0.5}"
+AFTER=$(curl -sf "http://localhost:${NODE_B}/api/v1/${USER_ID}" | jq -r '.fullName')
+
+echo "agent ${USER_ID} sur ${NODE_B}: '${BEFORE}' -> '${AFTER}'"
+if [ "${AFTER}" != "${NEW_NAME}" ]; then
+    echo "ÉCHEC : ${NODE_B} sert encore l'ancienne valeur" >&2
+    exit 1
+fi
+echo "OK"
+curl -s "http://localhost:${NODE_B}/actuator/prometheus" | grep '^agents_cluster_' || true
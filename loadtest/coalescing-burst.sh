@@ -0,0 +1,35 @@
+#!/usr/bin/env bash
+# Vérifie le regroupement des lectures concurrentes : BURSTS rafales de CONCURRENCY requêtes simultanées
+# GET /api/v1/{userId} sur un même userId absent (jamais mis en cache, chaque rafale doit aller en base).
+# Attendu : environ une instruction SQL par rafale, les autres appels comptés comme regroupés.
+# Exemple : BURSTS=20 CONCURRENCY=200 ./loadtest/coalescing-burst.sh
+# (instance démarrée avec --agents.admission.enabled=false : les rafales dépassent le débit d'un client)
+set -euo pipefail
+
+BURSTS=${BURSTS:-20}
+CONCURRENCY=${CONCURRENCY:-200}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+
+metric() {
+    curl -sf "${BASE_URL}/actuator/metrics/$1${2:+?tag=$2}" | jq '.measurements[0].value'
+}
+
+statements_before=$(metric hibernate.statements status:prepared)
+executed_before=$(metric agents.coalescing.loads "target:agent&tag=result:executed")
+coalesced_before=$(metric agents.coalescing.loads "target:agent&tag=result:coalesced")
+
+for burst in $(seq "${BURSTS}"); do
+    # userId hors format du générateur : toujours absent
+    user_id="zz$(date +%s%N)-${burst}"
+    seq "${CONCURRENCY}" | xargs -P "${CONCURRENCY}" -I{} \
+        curl -s -o /dev/null "${BASE_URL}/api/v1/${user_id}"
+done
+
+statements_after=$(metric hibernate.statements status:prepared)
+executed_after=$(metric agents.coalescing.loads "target:agent&tag=result:executed")
+coalesced_after=$(metric agents.coalescing.loads "target:agent&tag=result:coalesced")
+
+echo "${BURSTS} rafales de ${CONCURRENCY} requêtes simultanées"
+echo "instructions SQL / rafale : $(jq -n "(${statements_after} - ${statements_before}) / ${BURSTS}")"
+echo "chargements / rafale      : $(jq -n "(${executed_after} - ${executed_before}) / ${BURSTS}")"
+echo "appels regroupés          : $(jq -n "${coalesced_after} - ${coalesced_before}")"
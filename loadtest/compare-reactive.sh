@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# Compare la pile MVC/JPA (8080) et la pile WebFlux/R2DBC (8081) sur le même scénario de lecture.
+# Prérequis : Postgres local peuplé, k6, et les deux jars construits
+# (mvn -DskipTests package à la racine et dans reactive/).
+set -euo pipefail
+
+MVC_JAR=${MVC_JAR:-target/agents-0.0.1-SNAPSHOT.jar}
+REACTIVE_JAR=${REACTIVE_JAR:-reactive/target/agents-reactive-0.0.1-SNAPSHOT.jar}
+VUS=${VUS:-1000}
+DURATION=${DURATION:-60s}
+
+run() {
+    local mode=$1 jar=$2 port=$3
+    echo "=== ${mode} (port ${port})"
+    # Contrôle d'admission désactivé : tous les clients k6 partagent la même adresse
+    java -jar "${jar}" --server.port="${port}" --logging.level.root=WARN --agents.admission.enabled=false \
+        > "target/loadtest-${mode}.log" 2>&1 &
+    local pid=$!
+    trap "kill ${pid} 2>/dev/null || true" EXIT
+    until curl -sf "http://localhost:${port}/api/v1/agents?limit=1" > /dev/null; do sleep 1; done
+
+    k6 run --quiet -e BASE_URL="http://localhost:${port}" -e VUS="${VUS}" -e DURATION="${DURATION}" \
+        --summary-export "target/loadtest-${mode}.json" loadtest/agents-read.js
+    kill "${pid}"
+    wait "${pid}" 2>/dev/null || true
+    trap - EXIT
+}
+
+mkdir -p target
+run mvc "${MVC_JAR}" 8080
+run reactive "${REACTIVE_JAR}" 8081
+
+for mode in mvc reactive; do
+    printf '%-9s req/s=%s p99=%sms\n' "${mode}" \
+        "$(jq '.metrics.http_reqs.rate' "target/loadtest-${mode}.json")" \
+        "$(jq '.metrics.http_req_duration["p(99)"]' "target/loadtest-${mode}.json")"
+done
@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Compare le débit threads plateforme / threads virtuels avec 1000+ clients concurrents.
+# Prérequis : Postgres local peuplé (voir POST /api/v1/agents/bulk), k6 et le jar construit (mvn -DskipTests package).
+set -euo pipefail
+
+JAR=${JAR:-target/agents-0.0.1-SNAPSHOT.jar}
+VUS=${VUS:-1000}
+DURATION=${DURATION:-60s}
+PORT=${PORT:-8080}
+
+run() {
+    local mode=$1 virtual=$2
+    echo "=== ${mode} (spring.threads.virtual.enabled=${virtual})"
+    AGENTS_VIRTUAL_THREADS=${virtual} java -jar "${JAR}" --server.port="${PORT}" \
+        --logging.level.root=WARN --spring.jpa.show-sql=false \
+        --agents.admission.enabled=false > "target/loadtest-${mode}.log" 2>&1 &
+    local pid=$!
+    trap "kill ${pid} 2>/dev/null || true" EXIT
+    until curl -sf "http://localhost:${PORT}/api/v1/agents?limit=1" > /dev/null; do sleep 1; done
+
+    k6 run --quiet -e BASE_URL="http://localhost:${PORT}" -e VUS="${VUS}" -e DURATION="${DURATION}" \
+        --summary-export "target/loadtest-${mode}.json" loadtest/agents-read.js
+    kill "${pid}"
+    wait "${pid}" 2>/dev/null || true
+    trap - EXIT
+}
+
+mkdir -p target
+run platform false
+run virtual true
+
+for mode in platform virtual; do
+    printf '%-9s req/s=%s p99=%sms\n' "${mode}" \
+        "$(jq '.metrics.http_reqs.rate' "target/loadtest-${mode}.json")" \
+        "$(jq '.metrics.http_req_duration["p(99)"]' "target/loadtest-${mode}.json")"
+done
@@ -0,0 +1,30 @@
+#!/usr/bin/env bash
+# Mesure le nombre moyen d'instructions SQL par requête (statistiques Hibernate exposées par Actuator).
+# Exemple : ./loadtest/sql-statements-per-request.sh /api/v1/agents/active 200
+set -euo pipefail
+
+ENDPOINT=${1:-/api/v1/agents/active}
+REQUESTS=${2:-100}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+
+metric() {
+    curl -sf "${BASE_URL}/actuator/metrics/$1${2:+?tag=$2}" | jq '.measurements[0].value'
+}
+
+statements_before=$(metric hibernate.statements status:prepared)
+queries_before=$(metric hibernate.query.executions)
+
+for _ in $(seq "${REQUESTS}"); do
+    curl -sf -o /dev/null "${BASE_URL}${ENDPOINT}"
+done
+
+statements_after=$(metric hibernate.statements status:prepared)
+queries_after=$(metric hibernate.query.executions)
+
+echo "${ENDPOINT} : ${REQUESTS} requêtes"
+echo "instructions SQL / requête : $(jq -n "(${statements_after} - ${statements_before}) / ${REQUESTS}")"
+echo "requêtes JPQL / requête    : $(jq -n "(${queries_after} - ${queries_before}) / ${REQUESTS}")"
+echo "cache de requêtes (cumul)  : $(metric hibernate.cache.query.requests result:hit) hits /" \
+    "$(metric hibernate.cache.query.requests result:miss) misses"
+echo "second niveau (cumul)      : $(metric hibernate.second.level.cache.requests result:hit) hits /" \
+    "$(metric hibernate.second.level.cache.requests result:miss) misses"
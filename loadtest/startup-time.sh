@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+# Mesure le temps de démarrage (journal Spring "Started ... in X seconds") et le temps jusqu'à la première
+# réponse HTTP, médiane sur RUNS lancements, pour chaque mode : défaut, prod, prod + CDS, prod + CDS + AOT,
+# et image native si elle existe.
+# Prérequis : Postgres local, jar construit avec AOT (mvn -Paot -DskipTests package),
+# image native optionnelle (mvn -Pnative -DskipTests native:compile).
+set -euo pipefail
+
+JAR=${JAR:-target/agents-0.0.1-SNAPSHOT.jar}
+NATIVE=${NATIVE:-target/agents}
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+EXTRACTED=target/extracted
+
+# Lance une fois la commande, affiche "<démarrage Spring en s> <première réponse en ms>"
+measure() {
+    local log=target/startup-run.log
+    local start end
+    start=$(date +%s%N)
+    "$@" --server.port="${PORT}" > "${log}" 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:${PORT}/api/v1/agents?limit=1" > /dev/null; do
+        kill -0 "${pid}" 2>/dev/null || { cat "${log}" >&2; exit 1; }
+        sleep 0.05
+    done
+    end=$(date +%s%N)
+    kill "${pid}"
+    wait "${pid}" 2>/dev/null || true
+    echo "$(grep -oP 'Started \w+ in \K[0-9.]+' "${log}" | head -1) $(( (end - start) / 1000000 ))"
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+run() {
+    local mode=$1
+    shift
+    local results=target/startup-${mode}.txt
+    : > "${results}"
+    for _ in $(seq "${RUNS}"); do
+        measure "$@" >> "${results}"
+    done
+    printf '%-16s started=%ss first-request=%sms\n' "${mode}" \
+        "$(cut -d' ' -f1 "${results}" | median)" "$(cut -d' ' -f2 "${results}" | median)"
+}
+
+mkdir -p target
+
+# Jar extrait (requis par CDS) et archive des classes produite par un lancement d'entraînement
+rm -rf "${EXTRACTED}"
+java -Djarmode=tools -jar "${JAR}" extract --destination "${EXTRACTED}"
+APP_JAR="${EXTRACTED}/$(basename "${JAR}")"
+java -XX:ArchiveClassesAtExit="${EXTRACTED}/application.jsa" -Dspring.context.exit=onRefresh \
+    -jar "${APP_JAR}" --spring.profiles.active=prod > target/startup-training.log 2>&1
+java -XX:ArchiveClassesAtExit="${EXTRACTED}/application-aot.jsa" -Dspring.context.exit=onRefresh \
+    -Dspring.aot.enabled=true -jar "${APP_JAR}" --spring.profiles.active=prod >> target/startup-training.log 2>&1
+
+run default java -jar "${JAR}"
+run prod java -jar "${JAR}" --spring.profiles.active=prod
+run prod-cds java -XX:SharedArchiveFile="${EXTRACTED}/application.jsa" \
+    -jar "${APP_JAR}" --spring.profiles.active=prod
+run prod-cds-aot java -XX:SharedArchiveFile="${EXTRACTED}/application-aot.jsa" -Dspring.aot.enabled=true \
+    -jar "${APP_JAR}" --spring.profiles.active=prod
+if [ -x "${NATIVE}" ]; then
+    run native "${NATIVE}" --spring.profiles.active=prod
+fi
@@ -0,0 +1,56 @@
+// Lectures pendant une inondation d'écritures d'un seul client :
+// k6 run -e BASE_URL=http://localhost:8080 loadtest/write-flood.js
+// Attendu : écritures du client "batch" refusées en 429 au-delà de son budget, latence des lectures inchangée.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+
+export const options = {
+    scenarios: {
+        flood: {
+            executor: 'constant-arrival-rate',
+            exec: 'write',
+            rate: parseInt(__ENV.WRITE_RATE || '500'),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '30s',
+            preAllocatedVUs: 200,
+        },
+        reads: {
+            executor: 'constant-vus',
+            exec: 'read',
+            vus: parseInt(__ENV.READ_VUS || '50'),
+            duration: __ENV.DURATION || '30s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        'http_req_duration{scenario:reads}': ['p(99)<200'],
+        'checks{scenario:reads}': ['rate>0.99'],
+    },
+};
+
+export function setup() {
+    const res = http.get(`${BASE_URL}/api/v1/agents?limit=200`);
+    return { userIds: res.json().map((agent) => agent.userId) };
+}
+
+export function write() {
+    const id = `${__VU}-${__ITER}-${Date.now()}`;
+    const res = http.post(`${BASE_URL}/api/v1/agent`, JSON.stringify({
+        username: `flood${id}`,
+        fullName: 'Flood Test',
+        gender: 'M',
+        email: `flood${id}@example.com`,
+    }), { headers: { 'Content-Type': 'application/json', 'X-Client-Id': 'batch' } });
+    check(res, {
+        'write admise ou refusée (429 + Retry-After)': (r) =>
+            r.status === 201 || (r.status === 429 && r.headers['Retry-After'] !== undefined),
+    });
+}
+
+export function read(data) {
+    const userId = data.userIds[Math.floor(Math.random() * data.userIds.length)];
+    const res = http.get(`${BASE_URL}/api/v1/${userId}`, { headers: { 'X-Client-Id': `reader-${__VU}` } });
+    check(res, { 'lecture 200': (r) => r.status === 200 });
+}
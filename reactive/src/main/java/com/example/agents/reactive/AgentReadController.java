@@ -0,0 +1,60 @@
+package com.example.agents.reactive;
+
+import com.example.agents.util.ETags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Mêmes chemins que l'API MVC, en lecture seule
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@Slf4j
+public class AgentReadController {
+    
+    private final AgentReadRepository agentReadRepository;
+    private final PaginationProperties paginationProperties;
+    
+    // Récupère un agent par ID (ETag = version, identique à celui de l'API MVC ; 304 si inchangé)
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<AgentView>> getAgentById(@PathVariable String userId,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return agentReadRepository.findById(userId)
+                .map(agent -> {
+                    String etag = ETags.forVersion(agent.version());
+                    if (ETags.matches(ifNoneMatch, etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<AgentView>build();
+                    }
+                    return ResponseEntity.ok().eTag(etag).body(agent);
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+    
+    // Liste des agents : tableau JSON, ou NDJSON au rythme du client (Accept: application/x-ndjson) (?after=<userId>&limit=N).
+    // Toujours paginée : limite par défaut 100, plafonnée à 1000 (agents.pagination.*)
+    @GetMapping(value = "/agents", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<AgentView> getAllAgents(@RequestParam(required = false) String after,
+                                        @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit < 1) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive"));
+        }
+        return agentReadRepository.findAll(after, paginationProperties.resolveLimit(limit));
+    }
+    
+    @GetMapping(value = "/agents/active", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<AgentView> getActiveAgents() {
+        return agentReadRepository.findByActive(true);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.agents.reactive;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lectures des agents en une requête par appel : relations jointes, rôles agrégés en tableaux
+@Repository
+@RequiredArgsConstructor
+public class AgentReadRepository {
+    
+    private static final String SELECT_AGENTS = """
+            SELECT a.user_id, a.username, a.full_name, a.gender, a.email, a.email_pec, a.date_of_birth,
+                   a.last_login, a.created_at, a.active, a.version,
+                   ui.id AS user_info_id, ui.status, ui.delete_date, ui.admin_user, ui.email_pec_verified,
+                   ui.temporal_password,
+                   ad.id AS user_address_id, ad.country, ad.state, ad.address_line, ad.zip_code,
+                   rl.role_ids, rl.role_names
+            FROM agents a
+            LEFT JOIN user_info ui ON ui.agent_user_id = a.user_id
+            LEFT JOIN user_address ad ON ad.agent_user_id = a.user_id
+            LEFT JOIN LATERAL (
+                SELECT array_agg(r.id ORDER BY r.id) AS role_ids, array_agg(r.name ORDER BY r.id) AS role_names
+                FROM roles r WHERE r.agent_user_id = a.user_id
+            ) rl ON true
+            WHERE a.deleted_at IS NULL
+            """;
+    
+    // Lignes lues par aller-retour : la demande du client (backpressure) pilote la lecture du curseur
+    private static final int FETCH_SIZE = 500;
+    
+    private final DatabaseClient databaseClient;
+    
+    public Mono<AgentView> findById(String userId) {
+        return databaseClient.sql(SELECT_AGENTS + " AND a.user_id = :userId")
+                .bind("userId", userId)
+                .map(AgentReadRepository::toView)
+                .one();
+    }
+    
+    // Agents après le curseur, triés par userId (au plus limit)
+    public Flux<AgentView> findAll(String after, int limit) {
+        return databaseClient.sql(SELECT_AGENTS + " AND a.user_id > :after ORDER BY a.user_id LIMIT :limit")
+                .filter((statement, next) -> next.execute(statement.fetchSize(FETCH_SIZE)))
+                .bind("after", after == null ? "" : after)
+                .bind("limit", limit)
+                .map(AgentReadRepository::toView)
+                .all();
+    }
+    
+    public Flux<AgentView> findByActive(boolean active) {
+        return databaseClient.sql(SELECT_AGENTS + " AND a.active = :active ORDER BY a.user_id")
+                .filter((statement, next) -> next.execute(statement.fetchSize(FETCH_SIZE)))
+                .bind("active", active)
+                .map(AgentReadRepository::toView)
+                .all();
+    }
+    
+    private static AgentView toView(Readable row) {
+        Long userInfoId = row.get("user_info_id", Long.class);
+        Long userAddressId = row.get("user_address_id", Long.class);
+        return new AgentView(
+                row.get("user_id", String.class),
+                row.get("username", String.class),
+                row.get("full_name", String.class),
+                row.get("gender", String.class),
+                row.get("email", String.class),
+                row.get("email_pec", String.class),
+                row.get("date_of_birth", LocalDate.class),
+                row.get("last_login", LocalDateTime.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("active", Boolean.class),
+                row.get("version", Long.class),
+                toRoles(row.get("role_ids", Long[].class), row.get("role_names", String[].class)),
+                userInfoId == null ? null : new AgentView.UserInfoView(
+                        userInfoId,
+                        row.get("status", String.class),
+                        row.get("delete_date", LocalDateTime.class),
+                        row.get("admin_user", Boolean.class),
+                        row.get("email_pec_verified", Boolean.class),
+                        row.get("temporal_password", Boolean.class)),
+                userAddressId == null ? null : new AgentView.UserAddressView(
+                        userAddressId,
+                        row.get("country", String.class),
+                        row.get("state", String.class),
+                        row.get("address_line", String.class),
+                        row.get("zip_code", Integer.class)));
+    }
+    
+    private static List<AgentView.RoleView> toRoles(Long[] ids, String[] names) {
+        if (ids == null) {
+            return List.of();
+        }
+        List<AgentView.RoleView> roles = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            roles.add(new AgentView.RoleView(ids[i], names[i]));
+        }
+        return roles;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.agents.reactive;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Agent en lecture seule, même représentation JSON que l'entité Agent de l'application MVC
+public record AgentView(
+        String userId,
+        String username,
+        String fullName,
+        String gender,
+        String email,
+        String emailPec,
+        @JsonFormat(pattern = "yyyy-MM-dd") LocalDate dateOfBirth,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime lastLogin,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime createdAt,
+        Boolean active,
+        Long version,
+        List<RoleView> roles,
+        UserInfoView userInfo,
+        UserAddressView userAddress
+) {
+    
+    public record RoleView(Long id, String name) {
+    }
+    
+    public record UserInfoView(
+            Long id,
+            String status,
+            @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime deleteDate,
+            Boolean adminUser,
+            Boolean emailPecVerified,
+            Boolean temporalPassword
+    ) {
+    }
+    
+    public record UserAddressView(Long id, String country, String state, String addressLine, Integer zipCode) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.agents.reactive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// Pagination de GET /agents : mêmes clés et valeurs par défaut que l'application MVC
+@Data
+@Component
+@ConfigurationProperties(prefix = "agents.pagination")
+public class PaginationProperties {
+    
+    private int defaultLimit = 100;
+    private int maxLimit = 1000;
+    
+    // Limite absente : valeur par défaut ; au-delà du plafond : plafond (limite strictement positive attendue)
+    public int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        return Math.min(limit, maxLimit);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.agents.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+// API de lecture non bloquante, déployée à côté de l'application MVC (même base, écritures côté MVC)
+@SpringBootApplication
+public class ReactiveAgentsApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveAgentsApplication.class, args);
+	}
+
+}
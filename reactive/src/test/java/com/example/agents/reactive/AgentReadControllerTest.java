@@ -0,0 +1,107 @@
+package com.example.agents.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(AgentReadController.class)
+@Import(PaginationProperties.class)
+class AgentReadControllerTest {
+    
+    @Autowired
+    private WebTestClient webTestClient;
+    
+    @MockitoBean
+    private AgentReadRepository agentReadRepository;
+    
+    @Test
+    void agentsPageUsesDefaultLimit() {
+        when(agentReadRepository.findAll(null, 100)).thenReturn(Flux.just(agent("Ab00001", 1L), agent("Ab00002", 1L)));
+        
+        webTestClient.get().uri("/api/v1/agents")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].userId").isEqualTo("Ab00001");
+    }
+    
+    @Test
+    void agentsPageCapsLimitAndPassesCursor() {
+        when(agentReadRepository.findAll("Ab00001", 1000)).thenReturn(Flux.just(agent("Ab00002", 1L)));
+        
+        webTestClient.get().uri("/api/v1/agents?after=Ab00001&limit=5000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].userId").isEqualTo("Ab00002");
+        verify(agentReadRepository).findAll("Ab00001", 1000);
+    }
+    
+    @Test
+    void agentsPageRejectsNonPositiveLimit() {
+        webTestClient.get().uri("/api/v1/agents?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+        verify(agentReadRepository, never()).findAll(any(), anyInt());
+    }
+    
+    @Test
+    void agentByIdSendsVersionETag() {
+        when(agentReadRepository.findById("Ab00001")).thenReturn(Mono.just(agent("Ab00001", 3L)));
+        
+        webTestClient.get().uri("/api/v1/Ab00001")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"3\"")
+                .expectBody()
+                .jsonPath("$.version").isEqualTo(3);
+    }
+    
+    // Comparaison faible : ETag faible ou fort, seul ou dans une liste
+    @Test
+    void agentByIdMatchesIfNoneMatchWeakly() {
+        when(agentReadRepository.findById("Ab00001")).thenReturn(Mono.just(agent("Ab00001", 3L)));
+        
+        for (String ifNoneMatch : List.of("W/\"3\"", "\"3\"", "\"1\", W/\"3\"", "*")) {
+            webTestClient.get().uri("/api/v1/Ab00001")
+                    .header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch)
+                    .exchange()
+                    .expectStatus().isNotModified()
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"3\"");
+        }
+        webTestClient.get().uri("/api/v1/Ab00001")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"2\"")
+                .exchange()
+                .expectStatus().isOk();
+    }
+    
+    @Test
+    void unknownAgentIsNotFound() {
+        when(agentReadRepository.findById("Zz99999")).thenReturn(Mono.empty());
+        
+        webTestClient.get().uri("/api/v1/Zz99999")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+    
+    private static AgentView agent(String userId, Long version) {
+        return new AgentView(userId, "user" + userId, "Agent " + userId, "F", userId + "@example.com", null,
+                null, null, null, true, version, List.of(), null, null);
+    }
+}
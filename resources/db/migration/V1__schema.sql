@@ -0,0 +1,81 @@
+-- Schéma initial des agents (équivalent du schéma généré auparavant par ddl-auto=update).
+-- Idempotent : une base créée par Hibernate est reprise telle quelle (baseline 0, puis V1 sans effet).
+
+CREATE SEQUENCE IF NOT EXISTS roles_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS user_info_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS user_address_seq START WITH 1 INCREMENT BY 50;
+-- Blocs de userIds réservés par UserIdGenerator (taille de bloc = incrément)
+CREATE SEQUENCE IF NOT EXISTS agent_user_id_seq MINVALUE 0 START WITH 0 INCREMENT BY 100;
+
+CREATE TABLE IF NOT EXISTS agents (
+    user_id       VARCHAR(255) NOT NULL,
+    username      VARCHAR(255) NOT NULL,
+    full_name     VARCHAR(255) NOT NULL,
+    gender        VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    email_pec     VARCHAR(255),
+    date_of_birth DATE,
+    last_login    TIMESTAMP(6),
+    created_at    TIMESTAMP(6) NOT NULL,
+    active        BOOLEAN      NOT NULL,
+    deleted_at    TIMESTAMP(6),
+    version       BIGINT       DEFAULT 0 NOT NULL,
+    CONSTRAINT agents_pkey PRIMARY KEY (user_id),
+    CONSTRAINT uk_agents_username UNIQUE (username),
+    CONSTRAINT uk_agents_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS roles (
+    id            BIGINT       NOT NULL,
+    name          VARCHAR(255) NOT NULL,
+    agent_user_id VARCHAR(255),
+    CONSTRAINT roles_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_roles_agent FOREIGN KEY (agent_user_id) REFERENCES agents (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS user_info (
+    id                 BIGINT       NOT NULL,
+    status             VARCHAR(255) NOT NULL,
+    delete_date        TIMESTAMP(6),
+    admin_user         BOOLEAN      NOT NULL,
+    email_pec_verified BOOLEAN      NOT NULL,
+    temporal_password  BOOLEAN      NOT NULL,
+    agent_user_id      VARCHAR(255),
+    CONSTRAINT user_info_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_user_info_agent UNIQUE (agent_user_id),
+    CONSTRAINT fk_user_info_agent FOREIGN KEY (agent_user_id) REFERENCES agents (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS user_address (
+    id            BIGINT       NOT NULL,
+    country       VARCHAR(255),
+    state         VARCHAR(255),
+    address_line  VARCHAR(255),
+    zip_code      INTEGER,
+    agent_user_id VARCHAR(255),
+    CONSTRAINT user_address_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_user_address_agent UNIQUE (agent_user_id),
+    CONSTRAINT fk_user_address_agent FOREIGN KEY (agent_user_id) REFERENCES agents (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS agent_events (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id     VARCHAR(255)  NOT NULL,
+    type        VARCHAR(32)   NOT NULL,
+    payload     VARCHAR(4000),
+    occurred_at TIMESTAMP(6)  NOT NULL,
+    CONSTRAINT agent_events_pkey PRIMARY KEY (id)
+);
+
+-- Colonnes ajoutées après la création initiale de bases existantes
+ALTER TABLE agents ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP(6);
+ALTER TABLE agents ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+-- Contrainte d'énumération générée par Hibernate : jamais mise à jour par ddl-auto, elle refuse PURGED
+ALTER TABLE agent_events DROP CONSTRAINT IF EXISTS agent_events_type_check;
+
+-- Séquences (optimiseur pooled, incrément 50) placées au-delà des IDs existants :
+-- une base reprise peut contenir des lignes dont l'ID dépasse la valeur de départ
+SELECT setval('roles_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM roles), 1) + 50);
+SELECT setval('user_info_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM user_info), 1) + 50);
+SELECT setval('user_address_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM user_address), 1) + 50);
@@ -0,0 +1,28 @@
+-- Index des entités (voir les annotations @Index de Agent, Role, UserInfo, UserAddress, AgentEvent)
+CREATE INDEX IF NOT EXISTS idx_agents_active ON agents (active, user_id);
+CREATE INDEX IF NOT EXISTS idx_agents_created_at ON agents (created_at);
+CREATE INDEX IF NOT EXISTS idx_roles_agent ON roles (agent_user_id);
+CREATE INDEX IF NOT EXISTS idx_roles_name_agent ON roles (name, agent_user_id);
+CREATE INDEX IF NOT EXISTS idx_user_info_agent ON user_info (agent_user_id);
+CREATE INDEX IF NOT EXISTS idx_user_info_status ON user_info (status, agent_user_id);
+CREATE INDEX IF NOT EXISTS idx_user_address_agent ON user_address (agent_user_id);
+CREATE INDEX IF NOT EXISTS idx_user_address_country_state ON user_address (country, state, agent_user_id);
+CREATE INDEX IF NOT EXISTS idx_agent_events_user ON agent_events (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_agent_events_occurred_at ON agent_events (occurred_at);
+
+-- Un rôle au plus une fois par agent (cible de ON CONFLICT pour l'attribution en masse).
+-- Les doublons d'une base existante (le schéma Hibernate n'avait pas cette contrainte) sont d'abord supprimés,
+-- en gardant la ligne de plus petit id
+DELETE FROM roles r
+USING roles d
+WHERE r.agent_user_id = d.agent_user_id
+  AND r.name = d.name
+  AND r.id > d.id;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_roles_agent_name ON roles (agent_user_id, name);
+
+-- Recherche par préfixe insensible à la casse : lower(col) LIKE 'abc%'
+CREATE INDEX IF NOT EXISTS idx_agents_username_prefix ON agents (lower(username) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_agents_full_name_prefix ON agents (lower(full_name) text_pattern_ops);
+
+-- Purge des agents supprimés logiquement : seules les lignes supprimées sont indexées
+CREATE INDEX IF NOT EXISTS idx_agents_deleted_at ON agents (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,65 @@
+package com.example.agents.bench;
+
+import com.example.agents.model.Agent;
+import com.example.agents.model.Role;
+import com.example.agents.model.UserAddress;
+import com.example.agents.model.UserInfo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Jeux de données communs aux benchmarks
+final class AgentFixtures {
+    
+    private AgentFixtures() {
+    }
+    
+    // Agent complet (rôles, UserInfo, UserAddress) tel que retourné par les endpoints de lecture
+    static Agent agent(long n) {
+        Agent agent = Agent.builder()
+                .userId(String.format("Ab%05d", n % 100_000))
+                .username("agent" + n)
+                .fullName("Agent Number " + n)
+                .gender(n % 2 == 0 ? "F" : "M")
+                .email("agent" + n + "@example.com")
+                .emailPec("agent" + n + "@pec.example.com")
+                .dateOfBirth(LocalDate.of(1980, 1, 1).plusDays(n % 10_000))
+                .lastLogin(LocalDateTime.of(2024, 1, 1, 8, 0))
+                .createdAt(LocalDateTime.of(2023, 6, 1, 12, 0))
+                .active(true)
+                .build();
+        agent.setRoles(new ArrayList<>(List.of(
+                Role.builder().id(2 * n).name("ROLE_USER").agent(agent).build(),
+                Role.builder().id(2 * n + 1).name("ROLE_AGENT").agent(agent).build())));
+        agent.setUserInfo(UserInfo.builder().id(n).agent(agent).build());
+        agent.setUserAddress(UserAddress.builder()
+                .id(n)
+                .country("France")
+                .state("Ile-de-France")
+                .addressLine(n + " rue de la Paix")
+                .zipCode(75000)
+                .agent(agent)
+                .build());
+        return agent;
+    }
+    
+    // Agent à créer (sans ID ni relations générées par le service)
+    static Agent newAgent(long n) {
+        return Agent.builder()
+                .username("bench" + n)
+                .fullName("Bench Agent " + n)
+                .gender("F")
+                .email("bench" + n + "@example.com")
+                .build();
+    }
+    
+    static List<Agent> agents(int count) {
+        List<Agent> agents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            agents.add(agent(i));
+        }
+        return agents;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.agents.bench;
+
+import com.example.agents.model.Agent;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Sérialisation Jackson d'une liste d'agents avec toutes leurs relations : JSON / CBOR / Smile,
+// avec ou sans omission des valeurs par défaut, avec ou sans gzip.
+// Les tailles (octets sur le réseau) sont reportées dans les résultats JMH : compteur secondaire « bytes »
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgentSerializationBenchmark {
+    
+    @Param({"100", "1000"})
+    private int size;
+    
+    @Param({"json", "cbor", "smile"})
+    private String format;
+    
+    @Param({"ALWAYS", "NON_DEFAULT"})
+    private JsonInclude.Include inclusion;
+    
+    private List<Agent> agents;
+    private ObjectWriter writer;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        agents = AgentFixtures.agents(size);
+        // Même configuration de base que les convertisseurs de Spring Boot
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            default -> Jackson2ObjectMapperBuilder.json();
+        };
+        ObjectMapper objectMapper = builder.serializationInclusion(inclusion).build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Agent.class));
+    }
+    
+    @Benchmark
+    public byte[] serialize(Payload payload) throws IOException {
+        byte[] bytes = writer.writeValueAsBytes(agents);
+        payload.bytes = bytes.length;
+        return bytes;
+    }
+    
+    @Benchmark
+    public byte[] serializeGzip(Payload payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size * 256);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            writer.writeValue(gzip, agents);
+        }
+        byte[] bytes = out.toByteArray();
+        payload.bytes = bytes.length;
+        return bytes;
+    }
+    
+    // Taille de la dernière réponse produite : affectée (pas cumulée), la valeur d'une itération est la taille
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long bytes;
+    }
+}
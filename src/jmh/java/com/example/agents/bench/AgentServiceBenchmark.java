@@ -0,0 +1,84 @@
+package com.example.agents.bench;
+
+import com.example.agents.AgentsApplication;
+import com.example.agents.model.Agent;
+import com.example.agents.service.AgentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Chemins chauds d'AgentService sur une base locale (H2 par défaut, Postgres via BENCH_DATASOURCE_*)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgentServiceBenchmark {
+    
+    @Param({"1000"})
+    private int agentCount;
+    
+    private final AtomicLong sequence = new AtomicLong(1_000_000);
+    private ConfigurableApplicationContext context;
+    private AgentService agentService;
+    private List<String> userIds;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(AgentsApplication.class)
+                .profiles("bench")
+                .run();
+        agentService = context.getBean(AgentService.class);
+        
+        userIds = new ArrayList<>(agentCount);
+        for (int i = 0; i < agentCount; i++) {
+            userIds.add(agentService.createAgent(AgentFixtures.newAgent(i)).getUserId());
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public Agent createAgent() {
+        return agentService.createAgent(AgentFixtures.newAgent(sequence.incrementAndGet()));
+    }
+    
+    @Benchmark
+    public Optional<Agent> getAgentById() {
+        return agentService.getAgentById(userIds.get(ThreadLocalRandom.current().nextInt(userIds.size())));
+    }
+    
+    @Benchmark
+    public List<Agent> getAllAgents() {
+        return agentService.getAllAgents();
+    }
+    
+    @Benchmark
+    public List<Agent> getAgentsPage() {
+        return agentService.getAgentsPage(null, 100);
+    }
+}
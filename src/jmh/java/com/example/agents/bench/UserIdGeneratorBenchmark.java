@@ -0,0 +1,68 @@
+package com.example.agents.bench;
+
+import com.example.agents.config.AgentProperties;
+import com.example.agents.util.UserIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+// Génération de userIds sous contention (8 threads)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class UserIdGeneratorBenchmark {
+    
+    private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final String NUMBERS = "123456789";
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
+    private UserIdGenerator generator;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:userids;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS agents (user_id VARCHAR(255) PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS agent_user_id_seq MINVALUE 0 START WITH 0 INCREMENT BY 100");
+        generator = new UserIdGenerator(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate),
+                new AgentProperties());
+    }
+    
+    @Benchmark
+    public String generateUserId() {
+        return generator.generateUserId();
+    }
+    
+    // Référence : ancien algorithme (SecureRandom partagé, sans la boucle existsById)
+    @Benchmark
+    public String legacySecureRandom() {
+        StringBuilder userId = new StringBuilder();
+        for (int i = 0; i < 2; i++) {
+            userId.append(LETTERS.charAt(RANDOM.nextInt(LETTERS.length())));
+        }
+        for (int i = 0; i < 5; i++) {
+            userId.append(NUMBERS.charAt(RANDOM.nextInt(NUMBERS.length())));
+        }
+        return userId.toString();
+    }
+}
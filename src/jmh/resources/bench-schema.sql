@@ -0,0 +1,2 @@
+-- Objets hors entités JPA, absents du schéma généré par Hibernate (ddl-auto=create-drop)
+CREATE SEQUENCE IF NOT EXISTS agent_user_id_seq MINVALUE 0 START WITH 0 INCREMENT BY 100;
@@ -0,0 +1,78 @@
+package com.example.agents.repository;
+
+import com.example.agents.model.Agent;
+import com.example.agents.model.Role;
+import com.example.agents.model.UserAddress;
+import com.example.agents.model.UserInfo;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Base H2 en mémoire, schéma généré par Hibernate (les migrations Flyway visent Postgres)
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class AgentRepositoryTest {
+    
+    @Autowired
+    private AgentRepository agentRepository;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    // Pas de N+1 : agents, rôles, UserInfo et UserAddress en une seule instruction, quel que soit le nombre d'agents
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void findByActiveLoadsRelationsInOneStatement(int agentCount) {
+        for (int i = 0; i < agentCount; i++) {
+            entityManager.persist(agent(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        
+        SessionFactory sessionFactory = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        
+        List<Agent> agents = agentRepository.findByActive(true);
+        for (Agent agent : agents) {
+            assertThat(agent.getRoles()).hasSize(2);
+            assertThat(agent.getUserInfo().getStatus()).isEqualTo("active");
+            assertThat(agent.getUserAddress().getCountry()).isEqualTo("France");
+        }
+        
+        assertThat(agents).hasSize(agentCount);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+    
+    private static Agent agent(int n) {
+        Agent agent = Agent.builder()
+                .userId(String.format("Ab%05d", n))
+                .username("agent" + n)
+                .fullName("Agent Number " + n)
+                .gender(n % 2 == 0 ? "F" : "M")
+                .email("agent" + n + "@example.com")
+                .active(true)
+                .build();
+        agent.setRoles(new ArrayList<>(List.of(
+                Role.builder().name("ROLE_USER").agent(agent).build(),
+                Role.builder().name("ROLE_AGENT").agent(agent).build())));
+        agent.setUserInfo(UserInfo.builder().agent(agent).build());
+        agent.setUserAddress(UserAddress.builder().country("France").zipCode(75000).agent(agent).build());
+        return agent;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.agents.service;
+
+import com.example.agents.cluster.ClusterInvalidationPublisher;
+import com.example.agents.config.AgentProperties;
+import com.example.agents.event.AgentEventPublisher;
+import com.example.agents.model.Agent;
+import com.example.agents.model.Role;
+import com.example.agents.model.UserAddress;
+import com.example.agents.model.UserInfo;
+import com.example.agents.repository.AgentRepository;
+import com.example.agents.util.UserIdGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Base H2 en mémoire, schéma généré par Hibernate. Pas de transaction de test : les lectures concurrentes
+// s'exécutent sur d'autres threads et doivent voir l'agent enregistré
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AgentService.class, AgentCache.class, AgentProperties.class, SimpleMeterRegistry.class})
+class AgentServiceTest {
+    
+    private static final int CALLERS = 32;
+    private static final String USER_ID = "Ab00001";
+    
+    @Autowired
+    private AgentService agentService;
+    
+    @Autowired
+    private AgentRepository agentRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @MockitoBean
+    private UserIdGenerator userIdGenerator;
+    @MockitoBean
+    private AgentUniquenessIndex uniquenessIndex;
+    @MockitoBean
+    private Validator validator;
+    @MockitoBean
+    private ObjectMapper objectMapper;
+    @MockitoBean
+    private AgentEventPublisher eventPublisher;
+    @MockitoBean
+    private AgentStatistics statistics;
+    @MockitoBean
+    private ClusterInvalidationPublisher clusterInvalidation;
+    @MockitoBean
+    private AgentListLoader listLoader;
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    // Rafale de lectures du même agent, cache vide : une seule requête SQL pour tous les appels
+    @Test
+    void concurrentReadsOfOneAgentRunOneStatement() throws Exception {
+        agentRepository.saveAndFlush(agent());
+        
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        Statistics hibernateStatistics = sessionFactory.getStatistics();
+        hibernateStatistics.clear();
+        
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<Agent>>> results = new ArrayList<>(CALLERS);
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return agentService.getAgentById(USER_ID);
+            }));
+        }
+        start.countDown();
+        
+        for (Future<Optional<Agent>> result : results) {
+            Agent agent = result.get(10, TimeUnit.SECONDS).orElseThrow();
+            assertThat(agent.getRoles()).hasSize(2);
+            assertThat(agent.getUserAddress().getCountry()).isEqualTo("France");
+        }
+        assertThat(hibernateStatistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+    
+    private static Agent agent() {
+        Agent agent = Agent.builder()
+                .userId(USER_ID)
+                .username("agent1")
+                .fullName("Agent Number 1")
+                .gender("F")
+                .email("agent1@example.com")
+                .active(true)
+                .build();
+        agent.setRoles(new ArrayList<>(List.of(
+                Role.builder().name("ROLE_USER").agent(agent).build(),
+                Role.builder().name("ROLE_AGENT").agent(agent).build())));
+        agent.setUserInfo(UserInfo.builder().agent(agent).build());
+        agent.setUserAddress(UserAddress.builder().country("France").zipCode(75000).agent(agent).build());
+        return agent;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.agents.service;
+
+import com.example.agents.config.AgentProperties;
+import com.example.agents.dto.AgentCount;
+import com.example.agents.dto.AgentProfile;
+import com.example.agents.dto.AgentStats;
+import com.example.agents.repository.AgentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Comptages de la base simulés : chaque écriture est un agent créé, identifié par sa transaction Postgres
+class AgentStatisticsTest {
+    
+    private static final ThreadLocal<Long> TRANSACTION_ID = new ThreadLocal<>();
+    private static final AgentProfile CREATED = new AgentProfile(true, "F", "active", "France", List.of("ROLE_USER"));
+    
+    private final AgentRepository agentRepository = mock(AgentRepository.class);
+    private final AgentStatistics statistics = new AgentStatistics(agentRepository, new AgentProperties());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    // Écritures validées avant et après l'instantané du recalcul, dont les compteurs sont mis à jour pendant
+    // le recalcul ou après sa publication : chacune est comptée exactement une fois
+    @Test
+    void writesDuringReseedAreCountedExactlyOnce() throws Exception {
+        when(agentRepository.currentTransactionId()).thenAnswer(invocation -> TRANSACTION_ID.get());
+        
+        // Chargement initial : un agent
+        counts(1);
+        when(agentRepository.currentSnapshot()).thenReturn("90:90:");
+        statistics.seed();
+        assertCounts(1);
+        
+        // Recalcul : l'instantané voit les transactions 98, 99 et 101 (100 encore en cours, 102 pas commencée)
+        CountDownLatch counting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        counts(4);
+        when(agentRepository.currentSnapshot()).thenReturn("100:102:100");
+        when(agentRepository.countAgents()).thenAnswer(invocation -> {
+            counting.countDown();
+            assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+            return 4L;
+        });
+        Future<?> reseed = executor.submit(statistics::seed);
+        assertThat(counting.await(5, TimeUnit.SECONDS)).isTrue();
+        
+        // Compteurs mis à jour pendant les comptages
+        for (long transactionId : new long[] {99, 100, 101, 102}) {
+            createAfterCommit(transactionId);
+        }
+        release.countDown();
+        reseed.get(5, TimeUnit.SECONDS);
+        
+        // Mise à jour tardive d'une écriture déjà vue par le recalcul
+        createAfterCommit(98);
+        
+        assertCounts(6);
+    }
+    
+    private void createAfterCommit(long transactionId) {
+        TRANSACTION_ID.set(transactionId);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            statistics.recordAfterCommit(null, CREATED);
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            TransactionSynchronizationUtils.triggerAfterCompletion(0);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+            TRANSACTION_ID.remove();
+        }
+    }
+    
+    private void counts(long agents) {
+        when(agentRepository.countAgents()).thenReturn(agents);
+        when(agentRepository.countByActive()).thenReturn(List.of(new AgentCount("true", agents)));
+        when(agentRepository.countByRole()).thenReturn(List.of(new AgentCount("ROLE_USER", agents)));
+        when(agentRepository.countByStatus()).thenReturn(List.of(new AgentCount("active", agents)));
+        when(agentRepository.countByCountry()).thenReturn(List.of(new AgentCount("France", agents)));
+        when(agentRepository.countByGender()).thenReturn(List.of(new AgentCount("F", agents)));
+    }
+    
+    private void assertCounts(long agents) {
+        AgentStats stats = statistics.snapshot();
+        assertThat(stats.total()).isEqualTo(agents);
+        assertThat(stats.active()).containsExactlyEntriesOf(Map.of("true", agents));
+        assertThat(stats.roles()).containsExactlyEntriesOf(Map.of("ROLE_USER", agents));
+        assertThat(stats.countries()).containsExactlyEntriesOf(Map.of("France", agents));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.agents.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+    
+    private static final int CALLERS = 16;
+    private static final String KEY = "AB12345";
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void concurrentCallsShareOneLoad() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>(Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        
+        List<Future<String>> results = startCallers(flight, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "agent";
+        });
+        release.countDown();
+        
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("agent");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(flight.loadCount()).isEqualTo(1);
+        assertThat(flight.coalescedCount()).isEqualTo(CALLERS - 1);
+        assertThat(flight.inFlightCount()).isZero();
+    }
+    
+    @Test
+    void failurePropagatesToWaitersWithoutPoisoningTheKey() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>(Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("database unavailable");
+        
+        List<Future<String>> results = startCallers(flight, () -> {
+            loads.incrementAndGet();
+            await(release);
+            throw failure;
+        });
+        release.countDown();
+        
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseReference(failure);
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        
+        // L'échec n'est pas conservé : l'appel suivant recharge
+        assertThat(flight.execute(KEY, () -> {
+            loads.incrementAndGet();
+            return "agent";
+        })).isEqualTo("agent");
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(flight.inFlightCount()).isZero();
+    }
+    
+    @Test
+    void waitBeyondMaxWaitFailsWithoutLoading() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<String> loader = () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "agent";
+        };
+        
+        Future<String> leader = executor.submit(() -> flight.execute(KEY, loader));
+        awaitUntil(() -> flight.inFlightCount() == 1);
+        
+        assertThatThrownBy(() -> flight.execute(KEY, loader))
+                .isInstanceOf(SingleFlight.WaitTimeoutException.class);
+        release.countDown();
+        
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("agent");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(flight.timeoutCount()).isEqualTo(1);
+    }
+    
+    // Un appel exécute le chargement (bloqué), puis les autres arrivent pendant qu'il est en cours
+    private List<Future<String>> startCallers(SingleFlight<String> flight, Supplier<String> loader) {
+        List<Future<String>> results = new ArrayList<>(CALLERS);
+        results.add(executor.submit(() -> flight.execute(KEY, loader)));
+        awaitUntil(() -> flight.inFlightCount() == 1);
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(() -> flight.execute(KEY, loader)));
+        }
+        awaitUntil(() -> flight.coalescedCount() == CALLERS - 1);
+        return results;
+    }
+    
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5s");
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Latch not released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}